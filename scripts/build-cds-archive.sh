@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Builds the fast start jar, extracts it into target/fast-start and records a class data sharing archive
+# during a training run that ends after the first successful GET /todos.
+set -euo pipefail
+
+port="${PORT:-8080}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+extracted="$root/target/fast-start"
+
+sh "$root/mvnw" -q -Pfast-start -DskipTests package
+jar="$(ls "$root"/target/todo-back-*.jar | grep -v original | head -n 1)"
+
+rm -rf "$extracted" && mkdir -p "$extracted/exploded"
+(cd "$extracted/exploded" && jar xf "$jar")
+mv "$extracted/exploded/BOOT-INF/lib" "$extracted/lib"
+jar cf "$extracted/app.jar" -C "$extracted/exploded/BOOT-INF/classes" .
+rm -rf "$extracted/exploded"
+
+java -XX:ArchiveClassesAtExit="$extracted/app.jsa" -Dspring.aot.enabled=true \
+  -cp "$extracted/app.jar:$extracted/lib/*" io.smanicome.todoback.TodoBackApplication \
+  --spring.profiles.active=fast-start --server.port="$port" &
+pid=$!
+until curl -sf "http://localhost:$port/todos" > /dev/null; do sleep 0.1; done
+kill "$pid" && wait "$pid" || true
+echo "Archive written to $extracted/app.jsa"
@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# Compares the database modes: insert throughput of an import, read throughput of GET /todos, and the time from
+# restart to the first GET /todos with the number of todos recovered.
+# Usage: scripts/database-benchmark.sh [todos] [modes...], modes among mem, h2-file and postgresql (mem h2-file by
+# default), postgresql reading its connection from TODO_DATABASE_URL, TODO_DATABASE_USERNAME and TODO_DATABASE_PASSWORD
+set -euo pipefail
+
+todos="${1:-100000}"
+shift $(( $# < 1 ? $# : 1 ))
+if [ $# -gt 0 ]; then modes=("$@"); else modes=(mem h2-file); fi
+port="${PORT:-8080}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+jar="$(ls "$root"/target/todo-back-*.jar | grep -v original | head -n 1)"
+work="$(mktemp -d)"
+pid=""
+trap '[ -n "$pid" ] && kill "$pid" 2> /dev/null; rm -rf "$work"' EXIT
+
+awk -v todos="$todos" 'BEGIN { for (i = 1; i <= todos; i++) printf "{\"title\":\"todo %d\",\"order\":%d,\"completed\":%s}\n", i, i, (i % 2 ? "false" : "true") }' > "$work/todos.ndjson"
+
+arguments_for_mode() {
+  case "$1" in
+    mem) echo "" ;;
+    h2-file) echo "--spring.profiles.active=h2-file --todo.database.directory=$work/h2" ;;
+    postgresql) echo "--spring.profiles.active=postgresql" ;;
+    *) echo "Unknown mode $1" >&2; exit 1 ;;
+  esac
+}
+
+started_millis=0
+start() {
+  local started
+  started=$(date +%s%N)
+  java -jar "$jar" --server.port="$port" --todo.rate-limit.enabled=false $(arguments_for_mode "$1") > "$work/$1.log" 2>&1 &
+  pid=$!
+  until curl -sf "http://localhost:$port/todos" > /dev/null; do
+    kill -0 "$pid" 2> /dev/null || { cat "$work/$1.log" >&2; exit 1; }
+    sleep 0.01
+  done
+  started_millis=$(( ($(date +%s%N) - started) / 1000000 ))
+}
+
+stop() {
+  kill "$pid" && wait "$pid" || true
+  pid=""
+}
+
+for mode in "${modes[@]}"; do
+  start "$mode"
+  curl -sf -o /dev/null -X DELETE "http://localhost:$port/todos"
+  inserts=$(curl -sf -H 'Content-Type: application/x-ndjson' --data-binary @"$work/todos.ndjson" "http://localhost:$port/todos/import" \
+    | sed -E 's/.*"todosPerSecond":([0-9]+).*/\1/')
+  curl -sf -o /dev/null -H 'Content-Type: application/json' -d '{"title":"change"}' "http://localhost:$port/todos"
+  read_seconds=$(curl -sf -o /dev/null -w '%{time_total}' "http://localhost:$port/todos")
+  reads=$(awk -v todos="$todos" -v seconds="$read_seconds" 'BEGIN { printf "%.0f", todos / seconds }')
+  stop
+
+  start "$mode"
+  recovered=$(curl -sf "http://localhost:$port/todos" | { grep -o '"id"' || true; } | wc -l)
+  stop
+
+  echo "$mode: $inserts inserts/s, $reads reads/s, restart in $started_millis ms with $recovered todos recovered"
+done
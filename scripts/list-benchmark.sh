@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Measures GET /todos on a large list, sequentially then with the parallel list materialization over thread counts.
+# Every run follows a change of the todos, so the list is read and serialized again rather than served from the cache.
+# Usage: scripts/list-benchmark.sh [todos] [runs] [thread counts...]
+set -euo pipefail
+
+todos="${1:-1000000}"
+runs="${2:-5}"
+shift $(( $# < 2 ? $# : 2 ))
+if [ $# -gt 0 ]; then threads=("$@"); else threads=(1 2 4 8 16 32); fi
+port="${PORT:-8080}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+jar="$(ls "$root"/target/todo-back-*.jar | grep -v original | head -n 1)"
+seed="$(mktemp)"
+trap 'rm -f "$seed"' EXIT
+
+awk -v todos="$todos" 'BEGIN { for (i = 1; i <= todos; i++) printf "{\"title\":\"todo %d\",\"order\":%d,\"completed\":%s}\n", i, i, (i % 2 ? "false" : "true") }' > "$seed"
+
+benchmark() {
+  local label="$1"
+  shift
+  java -jar "$jar" --server.port="$port" --todo.rate-limit.enabled=false "$@" > /dev/null 2>&1 &
+  local pid=$!
+  until curl -sf "http://localhost:$port/todos" > /dev/null; do sleep 0.1; done
+  curl -sf -H 'Content-Type: application/x-ndjson' --data-binary @"$seed" "http://localhost:$port/todos/import" > /dev/null
+  curl -sf -o /dev/null "http://localhost:$port/todos"
+
+  local total=0
+  for run in $(seq 1 "$runs"); do
+    curl -sf -o /dev/null -H 'Content-Type: application/json' -d "{\"title\":\"change $run\"}" "http://localhost:$port/todos"
+    local elapsed
+    elapsed=$(curl -sf -o /dev/null -w '%{time_total}' "http://localhost:$port/todos")
+    total=$(awk -v total="$total" -v elapsed="$elapsed" 'BEGIN { print total + elapsed }')
+  done
+  kill "$pid" && wait "$pid" || true
+  echo "$label: $(awk -v total="$total" -v runs="$runs" 'BEGIN { printf "%.0f", total * 1000 / runs }') ms per GET /todos of $todos todos on average over $runs runs"
+}
+
+benchmark "sequential"
+for count in "${threads[@]}"; do
+  benchmark "$count threads" --todo.parallel-list.enabled=true --todo.parallel-list.threshold=1 \
+    --todo.parallel-list.parallelism="$count" --todo.parallel-list.read-partitions="$count" \
+    --spring.datasource.hikari.maximum-pool-size=$(( count + 2 ))
+done
@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Measures the time from launch to the first successful GET /todos.
+# Usage: scripts/startup-benchmark.sh [jar|aot|cds|native] [runs]
+set -euo pipefail
+
+mode="${1:-jar}"
+runs="${2:-5}"
+port="${PORT:-8080}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+jar="$(ls "$root"/target/todo-back-*.jar | grep -v original | head -n 1)"
+extracted="$root/target/fast-start"
+
+command_for_mode() {
+  case "$mode" in
+    jar) echo "java -jar $jar" ;;
+    aot) echo "java -Dspring.aot.enabled=true -jar $jar --spring.profiles.active=fast-start" ;;
+    cds) echo "java -XX:SharedArchiveFile=$extracted/app.jsa -Dspring.aot.enabled=true -cp $extracted/app.jar:$extracted/lib/* io.smanicome.todoback.TodoBackApplication --spring.profiles.active=fast-start" ;;
+    native) echo "$root/target/todo-back --spring.profiles.active=fast-start" ;;
+    *) echo "Unknown mode $mode" >&2; exit 1 ;;
+  esac
+}
+
+total=0
+for run in $(seq 1 "$runs"); do
+  start=$(date +%s%N)
+  $(command_for_mode) --server.port="$port" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf "http://localhost:$port/todos" > /dev/null; do sleep 0.01; done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid" && wait "$pid" || true
+  echo "run $run: ${elapsed} ms"
+  total=$(( total + elapsed ))
+done
+echo "$mode: $(( total / runs )) ms to first GET /todos on average over $runs runs"
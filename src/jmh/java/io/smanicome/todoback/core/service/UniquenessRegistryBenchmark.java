@@ -0,0 +1,66 @@
+package io.smanicome.todoback.core.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reservations of 64 threads in the registry, as writes in flight make them: a title reserved then released, either
+ * one no other thread claims or one of a few every thread contends for, and the next order.
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="UniquenessRegistryBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class UniquenessRegistryBenchmark {
+    private static final int CONTENDED_TITLES = 8;
+
+    private UniquenessRegistry registry;
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicInteger CLIENTS = new AtomicInteger();
+
+        private final int client = CLIENTS.getAndIncrement();
+        private int request;
+
+        String distinctTitle() {
+            return "title-" + client + "-" + request++;
+        }
+
+        String contendedTitle() {
+            return "title-" + (request++ % CONTENDED_TITLES);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        registry = new UniquenessRegistry(null);
+    }
+
+    @Benchmark
+    public boolean reserveDistinctTitles(Client client) {
+        final String title = client.distinctTitle();
+        final boolean reserved = registry.reserveTitle(title);
+        if (reserved) registry.releaseTitle(title);
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean reserveContendedTitles(Client client) {
+        final String title = client.contendedTitle();
+        final boolean reserved = registry.reserveTitle(title);
+        if (reserved) registry.releaseTitle(title);
+        return reserved;
+    }
+
+    @Benchmark
+    public int reserveNextOrders() {
+        return registry.reserveNextOrder();
+    }
+}
@@ -0,0 +1,90 @@
+package io.smanicome.todoback.data.jpa;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Insert throughput, in rows per second, into an h2-file database already holding {@code rows} todos, with random
+ * (version 4) or time-ordered (version 7) ids. Random ids land anywhere in the primary key index, so the deeper the
+ * table the more pages each batch touches; time-ordered ones are appended to its last pages.
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="TodoIdInsertBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TodoIdInsertBenchmark {
+    private static final int BATCH_SIZE = 1000;
+    private static final String INSERT = "INSERT INTO todos (id, title, \"order\", completed, version) VALUES (?, ?, ?, FALSE, 0)";
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> ids;
+    private int nextOrder;
+
+    @Param({"random", "time-ordered"})
+    private String strategy;
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        ids = switch (strategy) {
+            case "random" -> UUID::randomUUID;
+            case "time-ordered" -> new TimeOrderedUuidSupplier();
+            default -> throw new IllegalArgumentException("Unknown todo id strategy: " + strategy);
+        };
+
+        directory = Files.createTempDirectory("todo-id-insert");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("todos") + ";CACHE_SIZE=65536", "sa", "");
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/h2/schema.sql"));
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(INSERT);
+
+        while (nextOrder < rows) insertBatch(Math.min(10 * BATCH_SIZE, rows - nextOrder));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insert() throws SQLException {
+        insertBatch(BATCH_SIZE);
+    }
+
+    private void insertBatch(int size) throws SQLException {
+        for (int i = 0; i < size; i++) {
+            final int order = nextOrder++;
+            insert.setObject(1, ids.get());
+            insert.setString(2, "todo " + order);
+            insert.setInt(3, order);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
@@ -0,0 +1,91 @@
+package io.smanicome.todoback.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smanicome.todoback.core.exception.TitleAlreadyInUseException;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.core.service.Outcome;
+import io.smanicome.todoback.core.service.TodoService;
+import io.smanicome.todoback.core.service.UniquenessRegistry;
+import io.smanicome.todoback.data.JpaTodoRepository;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import io.smanicome.todoback.web.cache.TodoListResponseCache;
+import io.smanicome.todoback.web.client.ClientResolver;
+import io.smanicome.todoback.web.idempotency.IdempotencyStore;
+import io.smanicome.todoback.web.request.TodoCreationRequest;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of creations refused because their title is in use, the conflict being found by the database check of
+ * a repository answering from memory: through the controller, through the outcome API of the service, and through
+ * its throwing API. Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm} as well.
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="TodoConflictBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TodoConflictBenchmark {
+    private static final String TITLE_IN_USE = "title in use";
+
+    private final TodoCreationRequest request = new TodoCreationRequest(TITLE_IN_USE);
+    private final MockHttpServletRequest httpRequest = new MockHttpServletRequest("POST", "/todos");
+    private TodoService todoService;
+    private TodoController todoController;
+
+    @Setup
+    public void setUp() {
+        final CrudTodoRepository crudTodoRepository = (CrudTodoRepository) Proxy.newProxyInstance(
+                CrudTodoRepository.class.getClassLoader(),
+                new Class<?>[]{CrudTodoRepository.class},
+                (proxy, method, arguments) -> switch (method.getName()) {
+                    case "countByTitle" -> TITLE_IN_USE.equals(arguments[0]) ? 1 : 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+
+        final TodoChanges todoChanges = new TodoChanges();
+        final JpaTodoRepository todoRepository = new JpaTodoRepository(crudTodoRepository, todoChanges, false, false, Optional.empty());
+        todoService = new TodoService(todoRepository, null, new UniquenessRegistry(todoRepository));
+        todoController = new TodoController(
+                todoService,
+                new IdempotencyStore(10_000, Duration.ofHours(24), Duration.ofSeconds(5)),
+                new ClientResolver("X-Client-Id", Set.of()),
+                new TodoListResponseCache(todoChanges, new ObjectMapper(), Optional.empty(), 8),
+                1000
+        );
+    }
+
+    @Benchmark
+    public ResponseEntity<TodoResponse> controller() {
+        return todoController.create(null, request, httpRequest);
+    }
+
+    @Benchmark
+    public Outcome<Todo> outcome() {
+        return todoService.tryCreate(TITLE_IN_USE);
+    }
+
+    @Benchmark
+    public Object exception() {
+        try {
+            return todoService.create(TITLE_IN_USE);
+        } catch (TitleAlreadyInUseException e) {
+            return e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.smanicome.todoback.web;
+
+import io.smanicome.todoback.TodoBackApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput of the todos endpoints over HTTP, with and without the performance profile, against the in-memory
+ * database holding {@code todos} todos. Compare the scores of both profiles:
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="TodoEndpointsBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class TodoEndpointsBenchmark {
+    private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f-]{36})\"");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final AtomicLong titles = new AtomicLong();
+    private final List<URI> todoUris = new ArrayList<>();
+    private ConfigurableApplicationContext context;
+    private URI todosUri;
+
+    @Param({"default", "performance"})
+    private String profile;
+
+    @Param({"1000"})
+    private int todos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(TodoBackApplication.class)
+                .profiles(profile)
+                .run("--server.port=0", "--todo.rate-limit.enabled=false", "--logging.level.root=WARN");
+        todosUri = URI.create("http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort() + "/todos");
+
+        for (int i = 0; i < todos; i++) {
+            final Matcher id = ID.matcher(created().body());
+            if (!id.find()) throw new IllegalStateException("No todo created");
+            todoUris.add(todosUri.resolve("/todos/" + id.group(1)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(randomTodo()).GET()).statusCode();
+    }
+
+    @Benchmark
+    public int list() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(todosUri).GET()).statusCode();
+    }
+
+    @Benchmark
+    public int create() throws IOException, InterruptedException {
+        return createResponse().statusCode();
+    }
+
+    @Benchmark
+    public int toggleCompleted() throws IOException, InterruptedException {
+        final String body = "{\"completed\":" + ThreadLocalRandom.current().nextBoolean() + "}";
+        return send(HttpRequest.newBuilder(randomTodo())
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))).statusCode();
+    }
+
+    private HttpResponse<String> created() throws IOException, InterruptedException {
+        final HttpResponse<String> response = createResponse();
+        if (response.statusCode() != 201) throw new IllegalStateException("Create answered " + response.statusCode());
+        return response;
+    }
+
+    private HttpResponse<String> createResponse() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(todosUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"todo " + titles.incrementAndGet() + "\"}")));
+    }
+
+    private URI randomTodo() {
+        return todoUris.get(ThreadLocalRandom.current().nextInt(todoUris.size()));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,120 @@
+package io.smanicome.todoback.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.core.service.Outcome;
+import io.smanicome.todoback.core.service.TodoService;
+import io.smanicome.todoback.core.service.UniquenessRegistry;
+import io.smanicome.todoback.data.JpaTodoRepository;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import io.smanicome.todoback.data.jpa.TodoEntity;
+import io.smanicome.todoback.web.cache.TodoListResponseCache;
+import io.smanicome.todoback.web.client.ClientResolver;
+import io.smanicome.todoback.web.idempotency.IdempotencyStore;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Allocations of the mapping between entities, todos and responses, over a repository answering from memory, so the
+ * database is out of the measure. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TodoMappingBenchmark {
+    private static final UUID ID = new UUID(0x0190_0000_0000_7000L, 0x8000_0000_0000_0001L);
+
+    private final TodoChanges todoChanges = new TodoChanges();
+    private TodoEntity storedEntity;
+    private JpaTodoRepository todoRepository;
+    private TodoService todoService;
+    private TodoController todoController;
+    private boolean titleToggle;
+
+    @Param({"10000"})
+    private int listSize;
+
+    @Setup
+    public void setUp() {
+        final List<Todo> todos = IntStream.range(0, listSize)
+                .mapToObj(order -> new Todo(new UUID(ID.getMostSignificantBits(), order), "todo " + order, order, order % 2 == 0))
+                .toList();
+        storedEntity = new TodoEntity(ID, "a", 1, false);
+
+        final CrudTodoRepository crudTodoRepository = (CrudTodoRepository) Proxy.newProxyInstance(
+                CrudTodoRepository.class.getClassLoader(),
+                new Class<?>[]{CrudTodoRepository.class},
+                (proxy, method, arguments) -> switch (method.getName()) {
+                    case "save" -> {
+                        final TodoEntity entity = (TodoEntity) arguments[0];
+                        if (entity.getId() == null) entity.setId(ID);
+                        else storedEntity = entity;
+                        yield entity;
+                    }
+                    case "findById" -> Optional.of(storedEntity);
+                    case "findTodoById" -> Optional.of(new Todo(
+                            storedEntity.getId(),
+                            storedEntity.getTitle(),
+                            storedEntity.getOrder(),
+                            storedEntity.isCompleted(),
+                            storedEntity.getVersion()
+                    ));
+                    case "updateAtVersion" -> {
+                        storedEntity = new TodoEntity((UUID) arguments[0], (String) arguments[2], (int) arguments[3], (boolean) arguments[4], (long) arguments[1] + 1);
+                        yield 1;
+                    }
+                    case "findAllTodos" -> todos;
+                    case "countByTitle" -> 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+
+        todoRepository = new JpaTodoRepository(crudTodoRepository, todoChanges, false, false, Optional.empty());
+        final UniquenessRegistry uniquenessRegistry = new UniquenessRegistry(todoRepository);
+        uniquenessRegistry.hold(new Todo(ID, "a", 1, false));
+        todoService = new TodoService(todoRepository, null, uniquenessRegistry);
+        todoController = new TodoController(
+                todoService,
+                new IdempotencyStore(10_000, Duration.ofHours(24), Duration.ofSeconds(5)),
+                new ClientResolver("X-Client-Id", Set.of()),
+                new TodoListResponseCache(todoChanges, new ObjectMapper(), Optional.empty(), 8),
+                1000
+        );
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @Benchmark
+    public TodoResponse create() {
+        return TodoController.convertTodoToTodoResponse(todoRepository.create("title", 1));
+    }
+
+    @Benchmark
+    public TodoResponse update() {
+        titleToggle = !titleToggle;
+        final Outcome<Todo> outcome = todoService.tryUpdate(ID, titleToggle ? "b" : "a", null, titleToggle, null);
+        return TodoController.convertTodoToTodoResponse(((Outcome.Success<Todo>) outcome).value());
+    }
+
+    @Benchmark
+    public byte[] list() {
+        todoChanges.recordChange();
+        return todoController.getAll(null, null).getBody();
+    }
+}
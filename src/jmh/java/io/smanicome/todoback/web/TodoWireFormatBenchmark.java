@@ -0,0 +1,63 @@
+package io.smanicome.todoback.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Encoding and decoding of a list of {@code size} todos in JSON and in CBOR, as consumers of the list do. The encoded
+ * size of each format is printed on setup.
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="TodoWireFormatBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoWireFormatBenchmark {
+    private ObjectMapper mapper;
+    private List<TodoResponse> todos;
+    private byte[] encodedTodos;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"100000"})
+    private int size;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> new ObjectMapper();
+            case "cbor" -> new CBORMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        todos = IntStream.range(0, size)
+                .mapToObj(order -> {
+                    final UUID id = UUID.randomUUID();
+                    return new TodoResponse(id, "todo " + order, order, order % 2 == 0, order % 3, "http://localhost:8080/todos/" + id);
+                })
+                .toList();
+        encodedTodos = mapper.writeValueAsBytes(todos);
+
+        System.out.printf("format=%s todos=%d bytes=%d%n", format, size, encodedTodos.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(todos);
+    }
+
+    @Benchmark
+    public TodoResponse[] decode() throws IOException {
+        return mapper.readValue(encodedTodos, TodoResponse[].class);
+    }
+}
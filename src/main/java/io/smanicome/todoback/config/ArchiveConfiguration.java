@@ -0,0 +1,20 @@
+package io.smanicome.todoback.config;
+
+import io.smanicome.todoback.core.service.ITodoService;
+import io.smanicome.todoback.core.service.TodoArchiver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+@ConditionalOnProperty(prefix = "todo.archive", name = "enabled", havingValue = "true")
+public class ArchiveConfiguration {
+    @Bean
+    @Lazy(false)
+    public TodoArchiver todoArchiver(ITodoService todoService, ArchiveProperties properties) {
+        return new TodoArchiver(todoService, properties.retention(), properties.batchSize());
+    }
+}
@@ -0,0 +1,15 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("todo.archive")
+public record ArchiveProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("P30D") Duration retention,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("PT1M") Duration interval
+) {
+}
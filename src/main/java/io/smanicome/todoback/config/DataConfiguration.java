@@ -1,7 +1,83 @@
 package io.smanicome.todoback.config;
 
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import com.zaxxer.hikari.HikariDataSource;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.data.JpaTodoRepository;
+import io.smanicome.todoback.data.routing.ReplicaNode;
+import io.smanicome.todoback.data.routing.ReplicaRoutingDataSource;
+import io.smanicome.todoback.data.writebehind.CompletedJournal;
+import io.smanicome.todoback.data.writebehind.WriteBehindTodoRepository;
+import io.smanicome.todoback.web.routing.ReadSessionFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
-@EnableJpaRepositories
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties({ReplicaProperties.class, WriteBehindProperties.class})
 public class DataConfiguration {
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "todo.datasource.routing", name = "enabled", havingValue = "true")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties) {
+        final DataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        final List<ReplicaNode> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.replicas().size(); i++) {
+            final ReplicaProperties.Replica replica = replicaProperties.replicas().get(i);
+            final DataSource replicaDataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.url())
+                    .username(replica.username())
+                    .password(replica.password())
+                    .build();
+            replicas.add(new ReplicaNode("replica-" + i, replicaDataSource, replica.lagQuery(), replicaProperties.maxLag()));
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, replicaProperties.stickiness());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "todo.datasource.routing", name = "enabled", havingValue = "true")
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "todo.datasource.routing", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ReadSessionFilter> readSessionFilter(ReplicaProperties replicaProperties) {
+        final FilterRegistrationBean<ReadSessionFilter> registration = new FilterRegistrationBean<>(
+                new ReadSessionFilter(replicaProperties.sessionCookie())
+        );
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @Primary
+    @Lazy(false)
+    @ConditionalOnProperty(prefix = "todo.write-behind", name = "enabled", havingValue = "true")
+    public WriteBehindTodoRepository writeBehindTodoRepository(JpaTodoRepository jpaTodoRepository, TodoChanges todoChanges, WriteBehindProperties writeBehindProperties) {
+        return new WriteBehindTodoRepository(
+                jpaTodoRepository,
+                todoChanges,
+                new CompletedJournal(writeBehindProperties.journal()),
+                writeBehindProperties.flushThreshold(),
+                writeBehindProperties.maxPending()
+        );
+    }
 }
@@ -0,0 +1,12 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("todo.drain")
+public record DrainProperties(
+        @DefaultValue("0s") Duration delay
+) {
+}
@@ -0,0 +1,86 @@
+package io.smanicome.todoback.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.smanicome.todoback.data.jpa.TodoEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+
+/**
+ * Second-level cache of the todo entities and query cache of the counts, held in local Caffeine caches bounded in size
+ * and time to live. Bulk updates and deletes go through Hibernate, which evicts the entity region and invalidates the
+ * cached queries on the TODOS table. The hit ratio of each region is published as todo.cache.hit-ratio.
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+@ConditionalOnProperty(prefix = "todo.cache", name = "enabled", havingValue = "true")
+public class EntityCacheConfiguration {
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        final CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("todo-entity-cache"), EntityCacheConfiguration.class.getClassLoader());
+
+        cacheManager.createCache(TodoEntity.CACHE_REGION, bounded(properties.maximumSize(), properties));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(properties.queryMaximumSize(), properties));
+        // Invalidation timestamps of the query cache, which must outlive the cached queries
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernateProperties(CacheManager entityCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return meterRegistry -> {
+            final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            Gauge.builder("todo.cache.hit-ratio", statistics, stats -> hitRatio(stats.getDomainDataRegionStatistics(TodoEntity.CACHE_REGION)))
+                    .tag("region", TodoEntity.CACHE_REGION)
+                    .register(meterRegistry);
+            Gauge.builder("todo.cache.hit-ratio", statistics, stats -> hitRatio(stats.getQueryRegionStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)))
+                    .tag("region", "queries")
+                    .register(meterRegistry);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, EntityCacheProperties properties) {
+        final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(properties.timeToLive().toNanos()));
+        return configuration;
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) return Double.NaN;
+        final long requests = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return requests == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / requests;
+    }
+}
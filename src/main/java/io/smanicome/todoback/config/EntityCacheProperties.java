@@ -0,0 +1,15 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("todo.cache")
+public record EntityCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("1000") long queryMaximumSize,
+        @DefaultValue("PT10M") Duration timeToLive
+) {
+}
@@ -0,0 +1,65 @@
+package io.smanicome.todoback.config;
+
+import io.smanicome.todoback.data.ConnectionPoolPrefiller;
+import io.smanicome.todoback.data.routing.ReplicaRoutingDataSource;
+import io.smanicome.todoback.web.cache.TodoListResponseCache;
+import io.smanicome.todoback.web.lifecycle.DrainDelay;
+import io.smanicome.todoback.web.lifecycle.DrainFilter;
+import io.smanicome.todoback.web.lifecycle.WarmupRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Warmup before the instance reports ready, and drain once it refuses traffic on shutdown. The web server then waits
+ * for the in-flight requests, see server.shutdown, before the buffered writes are flushed.
+ */
+@Configuration
+@EnableConfigurationProperties({WarmupProperties.class, DrainProperties.class})
+public class LifecycleConfiguration {
+    @Bean
+    @ConditionalOnProperty(prefix = "todo.warmup", name = "enabled", havingValue = "true")
+    public WarmupRunner warmupRunner(
+            ApplicationContext context,
+            DataSource dataSource,
+            Optional<ReplicaRoutingDataSource> replicaRoutingDataSource,
+            TodoListResponseCache listResponseCache,
+            WarmupProperties properties
+    ) {
+        final Collection<DataSource> pools = replicaRoutingDataSource
+                .map(routing -> routing.getResolvedDataSources().values())
+                .orElse(List.of(dataSource));
+        return new WarmupRunner(
+                context,
+                new ConnectionPoolPrefiller(pools),
+                listResponseCache,
+                properties.rounds(),
+                properties.timeout(),
+                properties.listSize()
+        );
+    }
+
+    @Bean
+    @Lazy(false)
+    public DrainDelay drainDelay(DrainProperties properties) {
+        return new DrainDelay(properties.delay());
+    }
+
+    @Bean
+    public FilterRegistrationBean<DrainFilter> drainFilter(ApplicationAvailability availability) {
+        final FilterRegistrationBean<DrainFilter> registration = new FilterRegistrationBean<>(new DrainFilter(availability));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package io.smanicome.todoback.config;
+
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.data.jpa.TodoIdGenerator;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Types instantiated reflectively by Hibernate: the id generator and the projection of the JPQL constructor expressions.
+ * The JDBC interfaces are proxied by the SQL tracing data source.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(TodoIdGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .registerType(Todo.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .registerType(ArchivedTodo.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.proxies()
+                .registerJdkProxy(Connection.class)
+                .registerJdkProxy(Statement.class)
+                .registerJdkProxy(PreparedStatement.class)
+                .registerJdkProxy(CallableStatement.class)
+                .registerJdkProxy(ResultSet.class);
+    }
+}
@@ -0,0 +1,34 @@
+package io.smanicome.todoback.config;
+
+import io.smanicome.todoback.data.PartitionedTodoReader;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import io.smanicome.todoback.web.cache.ParallelListSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+@EnableConfigurationProperties(ParallelListProperties.class)
+@ConditionalOnProperty(prefix = "todo.parallel-list", name = "enabled", havingValue = "true")
+public class ParallelListConfiguration {
+    /**
+     * Not the common pool, as its threads block on JDBC.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool todoListPool(ParallelListProperties properties) {
+        return new ForkJoinPool(properties.parallelism() > 0 ? properties.parallelism() : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public PartitionedTodoReader partitionedTodoReader(CrudTodoRepository repository, ForkJoinPool todoListPool, ParallelListProperties properties) {
+        return new PartitionedTodoReader(repository, todoListPool, properties.threshold(), properties.readPartitions());
+    }
+
+    @Bean
+    public ParallelListSerializer parallelListSerializer(ForkJoinPool todoListPool, ParallelListProperties properties) {
+        return new ParallelListSerializer(todoListPool, properties.threshold());
+    }
+}
@@ -0,0 +1,16 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * A parallelism of 0 takes the number of cores. Every read partition takes a connection of the pool at once.
+ */
+@ConfigurationProperties("todo.parallel-list")
+public record ParallelListProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100000") int threshold,
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("4") int readPartitions
+) {
+}
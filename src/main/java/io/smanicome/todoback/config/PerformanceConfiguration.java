@@ -0,0 +1,37 @@
+package io.smanicome.todoback.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@Profile("performance")
+public class PerformanceConfiguration {
+    private static final String MAXIMUM_POOL_SIZE_PROPERTY = "spring.datasource.hikari.maximum-pool-size";
+
+    /**
+     * Sizes the pool from the number of cores, using the (cores * 2) + 1 rule of thumb, unless
+     * {@value MAXIMUM_POOL_SIZE_PROPERTY} is set explicitly. The pool is kept at a fixed size.
+     */
+    static int poolSizeFor(int availableProcessors) {
+        return availableProcessors * 2 + 1;
+    }
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizing(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikariDataSource && !environment.containsProperty(MAXIMUM_POOL_SIZE_PROPERTY)) {
+                    final int poolSize = poolSizeFor(Runtime.getRuntime().availableProcessors());
+                    hikariDataSource.setMaximumPoolSize(poolSize);
+                    hikariDataSource.setMinimumIdle(poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
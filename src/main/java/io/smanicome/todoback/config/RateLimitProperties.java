@@ -0,0 +1,22 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("todo.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("50") double permitsPerSecond,
+        @DefaultValue("100") int burst,
+        @DefaultValue("5") double listPermitsPerSecond,
+        @DefaultValue("20") int listBurst,
+        @DefaultValue("1") double bulkDeletePermitsPerSecond,
+        @DefaultValue("5") int bulkDeleteBurst,
+        @DefaultValue("100000") int maxClients,
+        @DefaultValue("500ms") Duration latencyThreshold,
+        @DefaultValue("8") int minConcurrency,
+        @DefaultValue("256") int maxConcurrency
+) {
+}
@@ -0,0 +1,17 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("todo.datasource")
+public record ReplicaProperties(
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("5s") Duration stickiness,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("TODO_READ_SESSION") String sessionCookie
+) {
+    public record Replica(String url, String username, String password, String lagQuery) {}
+}
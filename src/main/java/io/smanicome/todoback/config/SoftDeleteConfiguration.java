@@ -0,0 +1,20 @@
+package io.smanicome.todoback.config;
+
+import io.smanicome.todoback.data.TombstonePurger;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+@Configuration
+@EnableConfigurationProperties(SoftDeleteProperties.class)
+@ConditionalOnProperty(prefix = "todo.soft-delete", name = "enabled", havingValue = "true")
+public class SoftDeleteConfiguration {
+    @Bean
+    @Lazy(false)
+    public TombstonePurger tombstonePurger(CrudTodoRepository repository, SoftDeleteProperties properties) {
+        return new TombstonePurger(repository, properties.retention(), properties.purgeBatchSize(), properties.purgePause());
+    }
+}
@@ -0,0 +1,16 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("todo.soft-delete")
+public record SoftDeleteProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("PT1H") Duration retention,
+        @DefaultValue("PT1M") Duration purgeInterval,
+        @DefaultValue("500") int purgeBatchSize,
+        @DefaultValue("PT0.1S") Duration purgePause
+) {
+}
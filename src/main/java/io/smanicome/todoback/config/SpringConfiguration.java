@@ -1,7 +1,11 @@
 package io.smanicome.todoback.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
 public class SpringConfiguration {
 }
@@ -0,0 +1,59 @@
+package io.smanicome.todoback.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smanicome.todoback.data.tracing.OtlpJsonFileSpanExporter;
+import io.smanicome.todoback.data.tracing.TracingDataSource;
+import io.smanicome.todoback.web.tracing.SqlTracingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request tracing of the statements run on the primary data source, reported by {@link SqlTracingFilter}. Each
+ * statement is also observed as todo.sql, timed and exported as a span to the span file when one is set.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlTracingProperties.class)
+@ConditionalOnProperty(prefix = "todo.sql-tracing", name = "enabled", havingValue = "true")
+public class SqlTracingConfiguration {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor sqlTracingDataSource(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals(DATA_SOURCE_BEAN)) {
+                    // The registry is looked up on the first statement, once its handlers are registered
+                    return new TracingDataSource(dataSource, SingletonSupplier.of(() -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP)));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlTracingFilter> sqlTracingFilter(SqlTracingProperties properties) {
+        final FilterRegistrationBean<SqlTracingFilter> registration = new FilterRegistrationBean<>(
+                new SqlTracingFilter(properties.headers(), properties.repeatedStatementThreshold())
+        );
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "todo.sql-tracing", name = "span-file")
+    public SpanExporter sqlTracingSpanExporter(SqlTracingProperties properties) {
+        return new OtlpJsonFileSpanExporter(properties.spanFile());
+    }
+}
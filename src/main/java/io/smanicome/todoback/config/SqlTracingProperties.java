@@ -0,0 +1,15 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties("todo.sql-tracing")
+public record SqlTracingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("true") boolean headers,
+        @DefaultValue("5") int repeatedStatementThreshold,
+        Path spanFile
+) {
+}
@@ -0,0 +1,19 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The warmup stops after the given rounds or timeout, whichever comes first. The list size is the one of the
+ * synthetic list serialized every round.
+ */
+@ConfigurationProperties("todo.warmup")
+public record WarmupProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1000") int rounds,
+        @DefaultValue("30s") Duration timeout,
+        @DefaultValue("100") int listSize
+) {
+}
@@ -0,0 +1,15 @@
+package io.smanicome.todoback.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties("todo.write-behind")
+public record WriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("write-behind.journal") Path journal,
+        @DefaultValue("500") int flushThreshold,
+        @DefaultValue("10000") int maxPending
+) {
+}
@@ -1,4 +1,7 @@
 package io.smanicome.todoback.core.exception;
 
-public class InvalidTitleException extends Exception{
+public class InvalidTitleException extends Exception {
+    public InvalidTitleException() {
+        super(null, null, false, false);
+    }
 }
@@ -1,4 +1,7 @@
 package io.smanicome.todoback.core.exception;
 
 public class NegativeOrderException extends Exception {
+    public NegativeOrderException() {
+        super(null, null, false, false);
+    }
 }
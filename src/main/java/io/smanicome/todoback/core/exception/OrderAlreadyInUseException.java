@@ -1,4 +1,7 @@
 package io.smanicome.todoback.core.exception;
 
 public class OrderAlreadyInUseException extends Exception {
+    public OrderAlreadyInUseException() {
+        super(null, null, false, false);
+    }
 }
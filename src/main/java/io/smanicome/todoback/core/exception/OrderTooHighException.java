@@ -0,0 +1,7 @@
+package io.smanicome.todoback.core.exception;
+
+public class OrderTooHighException extends Exception {
+    public OrderTooHighException() {
+        super(null, null, false, false);
+    }
+}
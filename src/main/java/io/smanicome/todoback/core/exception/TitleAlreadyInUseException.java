@@ -1,4 +1,7 @@
 package io.smanicome.todoback.core.exception;
 
 public class TitleAlreadyInUseException extends Exception {
+    public TitleAlreadyInUseException() {
+        super(null, null, false, false);
+    }
 }
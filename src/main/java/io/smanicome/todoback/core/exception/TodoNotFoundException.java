@@ -1,4 +1,7 @@
 package io.smanicome.todoback.core.exception;
 
 public class TodoNotFoundException extends Exception {
+    public TodoNotFoundException() {
+        super(null, null, false, false);
+    }
 }
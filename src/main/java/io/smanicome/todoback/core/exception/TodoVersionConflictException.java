@@ -0,0 +1,7 @@
+package io.smanicome.todoback.core.exception;
+
+public class TodoVersionConflictException extends Exception {
+    public TodoVersionConflictException() {
+        super(null, null, false, false);
+    }
+}
@@ -0,0 +1,20 @@
+package io.smanicome.todoback.core.exception;
+
+import io.smanicome.todoback.core.service.Outcome;
+
+/**
+ * Thrown by a repository when the database refuses a write on a title or an order already in use, which the checks made
+ * before the write can miss when another process writes the same one in between.
+ */
+public class UniquenessViolationException extends RuntimeException {
+    private final Outcome.Reason reason;
+
+    public UniquenessViolationException(Outcome.Reason reason, Throwable cause) {
+        super(reason.name(), cause, false, false);
+        this.reason = reason;
+    }
+
+    public Outcome.Reason reason() {
+        return reason;
+    }
+}
@@ -0,0 +1,7 @@
+package io.smanicome.todoback.core.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ArchivedTodo(UUID id, String title, int order, Instant completedAt, Instant archivedAt) {
+}
@@ -0,0 +1,10 @@
+package io.smanicome.todoback.core.model;
+
+/**
+ * A todo to be created. A null order stands for the next free one.
+ */
+public record NewTodo(String title, Integer order, boolean completed) {
+    public NewTodo withOrder(int order) {
+        return new NewTodo(title, order, completed);
+    }
+}
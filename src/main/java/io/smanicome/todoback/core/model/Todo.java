@@ -2,16 +2,46 @@ package io.smanicome.todoback.core.model;
 
 import java.util.UUID;
 
-public record Todo(UUID id, String title, int order, boolean completed) {
+/**
+ * The version is the one the todo was read at, an update only applying over that same version.
+ */
+public record Todo(UUID id, String title, int order, boolean completed, long version) {
+    /**
+     * The highest order a todo can take, kept below {@link Integer#MAX_VALUE} so the order following it still fits.
+     */
+    public static final int MAX_ORDER = Integer.MAX_VALUE - 1;
+
+    /**
+     * A todo at its first version.
+     */
+    public Todo(UUID id, String title, int order, boolean completed) {
+        this(id, title, order, completed, 0);
+    }
+
     public Todo withTitle(String title) {
-        return new Todo(id, title, order, completed);
+        return new Todo(id, title, order, completed, version);
     }
 
     public Todo withOrder(int order) {
-        return new Todo(id, title, order, completed);
+        return new Todo(id, title, order, completed, version);
     }
 
     public Todo withCompleted(boolean completed) {
-        return new Todo(id, title, order, completed);
+        return new Todo(id, title, order, completed, version);
+    }
+
+    public Todo withVersion(long version) {
+        return new Todo(id, title, order, completed, version);
+    }
+
+    /**
+     * The todo with the given values in place of its own, in a single step, or itself when they don't change it.
+     */
+    public Todo merge(String title, Integer order, Boolean completed) {
+        final String mergedTitle = title != null ? title : this.title;
+        final int mergedOrder = order != null ? order : this.order;
+        final boolean mergedCompleted = completed != null ? completed : this.completed;
+        if (mergedTitle.equals(this.title) && mergedOrder == this.order && mergedCompleted == this.completed) return this;
+        return new Todo(id, mergedTitle, mergedOrder, mergedCompleted, version);
     }
 }
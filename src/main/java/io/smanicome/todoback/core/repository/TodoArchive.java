@@ -0,0 +1,29 @@
+package io.smanicome.todoback.core.repository;
+
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.Todo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cold storage of completed todos, moved out of the todos so that they stay small.
+ */
+public interface TodoArchive {
+    /**
+     * Moves at most the given number of todos completed before the given instant to the archive, in a transaction of
+     * its own, and returns their ids.
+     */
+    List<UUID> archiveCompletedBefore(Instant completedBefore, int batchSize);
+
+    List<ArchivedTodo> findAll(int page, int size);
+
+    Optional<ArchivedTodo> findById(UUID id);
+
+    /**
+     * Moves the archived todo back to the todos with the given order, completed as of now.
+     */
+    Optional<Todo> restore(UUID id, int order);
+}
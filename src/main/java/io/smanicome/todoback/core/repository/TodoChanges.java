@@ -0,0 +1,37 @@
+package io.smanicome.todoback.core.repository;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the todos, increased by the repository after every committed mutation.
+ */
+@Component
+public class TodoChanges {
+    private final AtomicLong version = new AtomicLong();
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Within a transaction, the change is only recorded once it commits, so a list read at the new version can't be
+     * read from the rows of before the commit, and a rolled back change isn't recorded.
+     */
+    public void recordChange() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+}
@@ -1,31 +1,60 @@
 package io.smanicome.todoback.core.repository;
 
+import io.smanicome.todoback.core.model.NewTodo;
 import io.smanicome.todoback.core.model.Todo;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Consumer;
 
 public interface TodoRepository {
     Todo create(String title, int order);
 
-    Optional<Todo> findByID(UUID id);
+    List<Todo> createAll(List<NewTodo> todos);
 
-    int getMaxOrder();
+    Optional<Todo> findByID(UUID id);
 
     List<Todo> findAll();
 
-    Todo update(Todo todo);
+    void forEach(Consumer<Todo> consumer);
+
+    /**
+     * Writes the todo over the version it was read at, empty when the todo was changed or deleted since.
+     */
+    Optional<Todo> update(Todo todo);
+
+    /**
+     * Writes the completed flag of the todo alone, over the version it was read at, empty when the todo was changed or
+     * deleted since.
+     */
+    Optional<Todo> updateCompleted(Todo todo);
+
+    void updateCompleted(Collection<UUID> ids, boolean completed);
+
+    int delete(UUID id);
 
-    void delete(UUID id);
+    int deleteAllById(Collection<UUID> ids);
 
-    void deleteByCompleted(boolean completed);
+    List<UUID> deleteByCompleted(boolean completed);
 
     void deleteAll();
 
     boolean existsById(UUID id);
 
+    int countByTitle(String title);
+
+    Set<String> findExistingTitles(Collection<String> titles);
+
     int countByOrder(int order);
 
-    int countByTitle(String title);
+    Set<Integer> findExistingOrders(Collection<Integer> orders);
+
+    /**
+     * Highest order in use, or 0 when there is no todo.
+     */
+    int findMaxOrder();
+
+    /**
+     * Writes the changes the repository holds back, if any, for the todos to be moved out of it as they are.
+     */
+    void flush();
 }
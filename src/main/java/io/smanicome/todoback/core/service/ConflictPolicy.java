@@ -0,0 +1,11 @@
+package io.smanicome.todoback.core.service;
+
+/**
+ * What an import does with a todo whose title or order is already in use, or which is invalid.
+ */
+public enum ConflictPolicy {
+    /** Leave the todo out and carry on. */
+    SKIP,
+    /** Stop the import, todos of the previous chunks stay imported. */
+    FAIL
+}
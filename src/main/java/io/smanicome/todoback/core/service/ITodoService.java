@@ -1,26 +1,55 @@
 package io.smanicome.todoback.core.service;
 
 import io.smanicome.todoback.core.exception.*;
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.NewTodo;
 import io.smanicome.todoback.core.model.Todo;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ITodoService {
     Todo create(String title) throws InvalidTitleException, TitleAlreadyInUseException;
 
+    Outcome<Todo> tryCreate(String title);
+
     Optional<Todo> findById(UUID id);
 
     List<Todo> findAll();
 
-    Todo update(UUID id, String title, Integer order, Boolean completed) throws
+    Todo update(UUID id, String title, Integer order, Boolean completed, Long version) throws
             TodoNotFoundException, OrderAlreadyInUseException, TitleAlreadyInUseException, NegativeOrderException,
-            InvalidTitleException;
+            OrderTooHighException, InvalidTitleException, TodoVersionConflictException;
+
+    /**
+     * Without a version, the update applies over the current version of the todo.
+     */
+    Outcome<Todo> tryUpdate(UUID id, String title, Integer order, Boolean completed, Long version);
 
     void deleteById(UUID id) throws TodoNotFoundException;
 
+    Outcome<Void> tryDeleteById(UUID id);
+
+    int deleteAllById(Collection<UUID> ids);
+
     void deleteCompleted();
 
     void deleteAll();
+
+    ImportReport importAll(Iterator<NewTodo> todos, ConflictPolicy conflictPolicy, int chunkSize, Consumer<ImportReport> progress);
+
+    void exportAll(Consumer<Todo> consumer);
+
+    int archiveCompleted(Instant completedBefore, int batchSize);
+
+    List<ArchivedTodo> findArchived(int page, int size);
+
+    Optional<ArchivedTodo> findArchivedById(UUID id);
+
+    Outcome<Todo> tryRestore(UUID id);
 }
@@ -0,0 +1,14 @@
+package io.smanicome.todoback.core.service;
+
+import java.time.Duration;
+
+/**
+ * Progress of an import. The failure and the record it occurred on, counted from 1 whatever the format, are only set
+ * when the import stopped.
+ */
+public record ImportReport(long imported, long skipped, Outcome.Reason failure, long failedRecord, Duration elapsed) {
+    public long todosPerSecond() {
+        final long elapsedNanos = Math.max(elapsed.toNanos(), 1);
+        return imported * 1_000_000_000L / elapsedNanos;
+    }
+}
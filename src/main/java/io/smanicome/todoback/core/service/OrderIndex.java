@@ -0,0 +1,109 @@
+package io.smanicome.todoback.core.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of the orders in use, as a bitmap split in pages of 65536 orders indexed by the high 16 bits, like the bitmap
+ * containers of a Roaring bitmap. Bits are set and cleared with CAS, and each page counts its orders so empty pages
+ * are skipped. Contiguous orders cost a bit each, and an isolated one the 8 KB of its page. Negative orders are not
+ * indexed.
+ */
+public final class OrderIndex {
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+    private static final int WORDS_PER_PAGE = (PAGE_MASK + 1) / Long.SIZE;
+
+    private static final class Page {
+        private final AtomicLongArray words = new AtomicLongArray(WORDS_PER_PAGE);
+        private final AtomicInteger cardinality = new AtomicInteger();
+    }
+
+    private final ConcurrentNavigableMap<Integer, Page> pages = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds the order, returning false when it was already in use.
+     */
+    public boolean add(int order) {
+        if (order < 0) return false;
+
+        final Page page = pages.computeIfAbsent(order >>> PAGE_SHIFT, index -> new Page());
+        final int word = (order & PAGE_MASK) >>> 6;
+        final long bit = 1L << order;
+
+        long bits;
+        do {
+            bits = page.words.get(word);
+            if ((bits & bit) != 0) return false;
+        } while (!page.words.compareAndSet(word, bits, bits | bit));
+
+        page.cardinality.incrementAndGet();
+        return true;
+    }
+
+    public void remove(int order) {
+        if (order < 0) return;
+
+        final Page page = pages.get(order >>> PAGE_SHIFT);
+        if (page == null) return;
+        final int word = (order & PAGE_MASK) >>> 6;
+        final long bit = 1L << order;
+
+        long bits;
+        do {
+            bits = page.words.get(word);
+            if ((bits & bit) == 0) return;
+        } while (!page.words.compareAndSet(word, bits, bits & ~bit));
+
+        page.cardinality.decrementAndGet();
+    }
+
+    public boolean contains(int order) {
+        if (order < 0) return false;
+
+        final Page page = pages.get(order >>> PAGE_SHIFT);
+        return page != null && (page.words.get((order & PAGE_MASK) >>> 6) & (1L << order)) != 0;
+    }
+
+    /**
+     * Highest order in use, or 0 when there is none.
+     */
+    public int max() {
+        for (Map.Entry<Integer, Page> entry : pages.descendingMap().entrySet()) {
+            final Page page = entry.getValue();
+            if (page.cardinality.get() == 0) continue;
+
+            for (int word = WORDS_PER_PAGE - 1; word >= 0; word--) {
+                final long bits = page.words.get(word);
+                if (bits != 0) return (entry.getKey() << PAGE_SHIFT) + word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(bits);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Lowest order not in use from the given one, or -1 when every order from it is.
+     */
+    public int nextFree(int from) {
+        int order = Math.max(from, 0);
+        while (true) {
+            final Page page = pages.get(order >>> PAGE_SHIFT);
+            if (page == null || page.cardinality.get() == 0) return order;
+
+            for (int word = (order & PAGE_MASK) >>> 6; word < WORDS_PER_PAGE; word++) {
+                final long free = ~page.words.get(word) & (word == (order & PAGE_MASK) >>> 6 ? -1L << order : -1L);
+                if (free != 0) return ((order >>> PAGE_SHIFT) << PAGE_SHIFT) + word * Long.SIZE + Long.numberOfTrailingZeros(free);
+            }
+
+            if (order >>> PAGE_SHIFT == Integer.MAX_VALUE >>> PAGE_SHIFT) return -1;
+            order = ((order >>> PAGE_SHIFT) + 1) << PAGE_SHIFT;
+        }
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+}
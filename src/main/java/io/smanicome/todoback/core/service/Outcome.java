@@ -0,0 +1,36 @@
+package io.smanicome.todoback.core.service;
+
+import java.util.Arrays;
+
+/**
+ * Result of a todo operation, either the resulting value or the reason it was refused.
+ * Failures carry no data and are preallocated, so refusing an operation allocates nothing.
+ */
+public sealed interface Outcome<T> {
+    enum Reason {
+        TODO_NOT_FOUND,
+        TITLE_ALREADY_IN_USE,
+        ORDER_ALREADY_IN_USE,
+        INVALID_TITLE,
+        NEGATIVE_ORDER,
+        ORDER_TOO_HIGH,
+        VERSION_CONFLICT
+    }
+
+    record Success<T>(T value) implements Outcome<T> {}
+
+    record Failure<T>(Reason reason) implements Outcome<T> {
+        private static final Failure<?>[] INSTANCES = Arrays.stream(Reason.values())
+                .map(Failure::new)
+                .toArray(Failure<?>[]::new);
+    }
+
+    static <T> Outcome<T> success(T value) {
+        return new Success<>(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Outcome<T> failure(Reason reason) {
+        return (Outcome<T>) Failure.INSTANCES[reason.ordinal()];
+    }
+}
@@ -0,0 +1,242 @@
+package io.smanicome.todoback.core.service;
+
+import io.smanicome.todoback.core.exception.*;
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.NewTodo;
+import io.smanicome.todoback.core.model.Todo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Shares a single in-flight read between concurrent identical calls. A completed read is reused for the configured
+ * window, and never once a mutation completed after it started. It is dropped once its window is over, so only the
+ * reads of the last window are kept.
+ */
+@Service
+@Primary
+public class SingleFlightTodoService implements ITodoService {
+    private static final Object FIND_ALL = new Object();
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final long generation;
+        private volatile long completedAtNanos;
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+
+        private boolean isReusable(long currentGeneration, long now, long reuseWindowNanos) {
+            if (generation != currentGeneration) return false;
+            return !result.isDone() || now - completedAtNanos < reuseWindowNanos;
+        }
+    }
+
+    private final ITodoService delegate;
+    private final long reuseWindowNanos;
+    private final Executor expiry;
+    private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public SingleFlightTodoService(TodoService delegate, @Value("${todo.single-flight.reuse-window:PT0S}") Duration reuseWindow) {
+        this.delegate = delegate;
+        this.reuseWindowNanos = reuseWindow.toNanos();
+        this.expiry = CompletableFuture.delayedExecutor(reuseWindowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Todo create(String title) throws InvalidTitleException, TitleAlreadyInUseException {
+        try {
+            return delegate.create(title);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public Outcome<Todo> tryCreate(String title) {
+        try {
+            return delegate.tryCreate(title);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public Optional<Todo> findById(UUID id) {
+        return singleFlight(id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        return singleFlight(FIND_ALL, delegate::findAll);
+    }
+
+    @Override
+    public Todo update(UUID id, String title, Integer order, Boolean completed, Long version) throws TodoNotFoundException, OrderAlreadyInUseException, TitleAlreadyInUseException, NegativeOrderException, OrderTooHighException, InvalidTitleException, TodoVersionConflictException {
+        try {
+            return delegate.update(id, title, order, completed, version);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public Outcome<Todo> tryUpdate(UUID id, String title, Integer order, Boolean completed, Long version) {
+        try {
+            return delegate.tryUpdate(id, title, order, completed, version);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleteById(UUID id) throws TodoNotFoundException {
+        try {
+            delegate.deleteById(id);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public Outcome<Void> tryDeleteById(UUID id) {
+        try {
+            return delegate.tryDeleteById(id);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<UUID> ids) {
+        try {
+            return delegate.deleteAllById(ids);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleteCompleted() {
+        try {
+            delegate.deleteCompleted();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        try {
+            delegate.deleteAll();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public ImportReport importAll(Iterator<NewTodo> todos, ConflictPolicy conflictPolicy, int chunkSize, Consumer<ImportReport> progress) {
+        try {
+            return delegate.importAll(todos, conflictPolicy, chunkSize, report -> {
+                invalidate();
+                progress.accept(report);
+            });
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void exportAll(Consumer<Todo> consumer) {
+        delegate.exportAll(consumer);
+    }
+
+    @Override
+    public int archiveCompleted(Instant completedBefore, int batchSize) {
+        try {
+            return delegate.archiveCompleted(completedBefore, batchSize);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public List<ArchivedTodo> findArchived(int page, int size) {
+        return delegate.findArchived(page, size);
+    }
+
+    @Override
+    public Optional<ArchivedTodo> findArchivedById(UUID id) {
+        return delegate.findArchivedById(id);
+    }
+
+    @Override
+    public Outcome<Todo> tryRestore(UUID id) {
+        try {
+            return delegate.tryRestore(id);
+        } finally {
+            invalidate();
+        }
+    }
+
+    int flights() {
+        return flights.size();
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        flights.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(Object key, Supplier<T> read) {
+        final long currentGeneration = generation.get();
+        final long now = System.nanoTime();
+        final Flight candidate = new Flight(currentGeneration);
+
+        final Flight flight = flights.compute(key, (k, current) ->
+                current != null && current.isReusable(currentGeneration, now, reuseWindowNanos) ? current : candidate
+        );
+
+        if (flight != candidate) {
+            try {
+                return (T) flight.result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+                throw e;
+            }
+        }
+
+        try {
+            final T result = read.get();
+            flight.completedAtNanos = System.nanoTime();
+            flight.result.complete(result);
+            if (reuseWindowNanos == 0) flights.remove(key, flight);
+            else expiry.execute(() -> flights.remove(key, flight));
+            return result;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
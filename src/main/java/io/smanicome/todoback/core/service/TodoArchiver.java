@@ -0,0 +1,26 @@
+package io.smanicome.todoback.core.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Periodically moves the todos completed for longer than the retention to the archive.
+ */
+public class TodoArchiver {
+    private final ITodoService todoService;
+    private final Duration retention;
+    private final int batchSize;
+
+    public TodoArchiver(ITodoService todoService, Duration retention, int batchSize) {
+        this.todoService = todoService;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${todo.archive.interval:PT1M}", fixedDelayString = "${todo.archive.interval:PT1M}")
+    public int archive() {
+        return todoService.archiveCompleted(Instant.now().minus(retention), batchSize);
+    }
+}
@@ -1,29 +1,83 @@
 package io.smanicome.todoback.core.service;
 
 import io.smanicome.todoback.core.exception.*;
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.NewTodo;
 import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoArchive;
 import io.smanicome.todoback.core.repository.TodoRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.function.Function;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class TodoService implements ITodoService {
+    private static final int COMMUTATIVE_UPDATE_ATTEMPTS = 5;
+    private static final int CREATE_ATTEMPTS = 3;
+
     private final TodoRepository todoRepository;
+    private final TodoArchive todoArchive;
+    private final UniquenessRegistry uniquenessRegistry;
 
-    public TodoService(TodoRepository todoRepository) {
+    public TodoService(TodoRepository todoRepository, TodoArchive todoArchive, UniquenessRegistry uniquenessRegistry) {
         this.todoRepository = todoRepository;
+        this.todoArchive = todoArchive;
+        this.uniquenessRegistry = uniquenessRegistry;
     }
 
     @Override
     public Todo create(String title) throws InvalidTitleException, TitleAlreadyInUseException {
-        assertTitleIsValid(title);
-        final int maxOrder = todoRepository.getMaxOrder();
-        return todoRepository.create(title, maxOrder + 1);
+        return switch (tryCreate(title)) {
+            case Outcome.Success<Todo> success -> success.value();
+            case Outcome.Failure<Todo> failure when failure.reason() == Outcome.Reason.INVALID_TITLE -> throw new InvalidTitleException();
+            case Outcome.Failure<Todo> failure -> throw new TitleAlreadyInUseException();
+        };
+    }
+
+    /**
+     * The todo takes the order following the highest one the registry knows. When another process took it first, the
+     * highest order is read from the database and the creation tried again, a bounded number of times.
+     */
+    @Override
+    public Outcome<Todo> tryCreate(String title) {
+        final Outcome.Reason invalidTitle = reserveTitle(title);
+        if (invalidTitle != null) return Outcome.failure(invalidTitle);
+
+        try {
+            Outcome<Todo> outcome = createOnce(title);
+            for (int attempt = 1; attempt < CREATE_ATTEMPTS && isOrderInUse(outcome); attempt++) {
+                uniquenessRegistry.learnOrder(todoRepository.findMaxOrder());
+                outcome = createOnce(title);
+            }
+            return outcome;
+        } finally {
+            uniquenessRegistry.releaseTitle(title);
+        }
+    }
+
+    private Outcome<Todo> createOnce(String title) {
+        final int order = uniquenessRegistry.reserveNextOrder();
+        if (order < 0) return Outcome.failure(Outcome.Reason.ORDER_ALREADY_IN_USE);
+
+        try {
+            final Todo todo = todoRepository.create(title, order);
+            uniquenessRegistry.hold(todo);
+            uniquenessRegistry.releaseOrder(order);
+            return Outcome.success(todo);
+        } catch (UniquenessViolationException e) {
+            uniquenessRegistry.cancelNextOrder(order);
+            return Outcome.failure(e.reason());
+        } catch (RuntimeException e) {
+            uniquenessRegistry.cancelNextOrder(order);
+            throw e;
+        }
+    }
+
+    private static boolean isOrderInUse(Outcome<Todo> outcome) {
+        return outcome instanceof Outcome.Failure<Todo> failure && failure.reason() == Outcome.Reason.ORDER_ALREADY_IN_USE;
     }
 
     @Override
@@ -37,57 +91,349 @@ public class TodoService implements ITodoService {
     }
 
     @Override
-    public Todo update(UUID id, String title, Integer order, Boolean completed)
-            throws TodoNotFoundException, OrderAlreadyInUseException, NegativeOrderException, InvalidTitleException,
-            TitleAlreadyInUseException {
-        final Todo todoToUpdate = todoRepository.findByID(id).orElseThrow(TodoNotFoundException::new);
+    public Todo update(UUID id, String title, Integer order, Boolean completed, Long version)
+            throws TodoNotFoundException, OrderAlreadyInUseException, NegativeOrderException, OrderTooHighException,
+            InvalidTitleException, TitleAlreadyInUseException, TodoVersionConflictException {
+        return switch (tryUpdate(id, title, order, completed, version)) {
+            case Outcome.Success<Todo> success -> success.value();
+            case Outcome.Failure<Todo> failure when failure.reason() == Outcome.Reason.TODO_NOT_FOUND -> throw new TodoNotFoundException();
+            case Outcome.Failure<Todo> failure when failure.reason() == Outcome.Reason.TITLE_ALREADY_IN_USE -> throw new TitleAlreadyInUseException();
+            case Outcome.Failure<Todo> failure when failure.reason() == Outcome.Reason.ORDER_ALREADY_IN_USE -> throw new OrderAlreadyInUseException();
+            case Outcome.Failure<Todo> failure when failure.reason() == Outcome.Reason.INVALID_TITLE -> throw new InvalidTitleException();
+            case Outcome.Failure<Todo> failure when failure.reason() == Outcome.Reason.VERSION_CONFLICT -> throw new TodoVersionConflictException();
+            case Outcome.Failure<Todo> failure when failure.reason() == Outcome.Reason.ORDER_TOO_HIGH -> throw new OrderTooHighException();
+            case Outcome.Failure<Todo> failure -> throw new NegativeOrderException();
+        };
+    }
+
+    /**
+     * A change of the completed flag alone commutes with any other change, so when another update got to the todo
+     * first, it's applied again over the new version, a bounded number of times. Any other change is refused on a
+     * conflict, its checks having been made against a todo which has changed since.
+     */
+    @Override
+    public Outcome<Todo> tryUpdate(UUID id, String title, Integer order, Boolean completed, Long version) {
+        final boolean commutative = title == null && order == null && version == null;
+        Outcome<Todo> outcome = tryUpdateOnce(id, title, order, completed, version);
+        for (int attempt = 1; commutative && attempt < COMMUTATIVE_UPDATE_ATTEMPTS && isVersionConflict(outcome); attempt++) {
+            outcome = tryUpdateOnce(id, title, order, completed, version);
+        }
+        return outcome;
+    }
 
-        if(title != null && !todoToUpdate.title().equals(title)) assertTitleIsValid(title);
-        if(order != null && order != todoToUpdate.order()) assertOrderIsPositive(order);
+    private static boolean isVersionConflict(Outcome<Todo> outcome) {
+        return outcome instanceof Outcome.Failure<Todo> failure && failure.reason() == Outcome.Reason.VERSION_CONFLICT;
+    }
 
-        final Todo updatedTodo = TodoService.mergeTodo(title, order, completed).apply(todoToUpdate);
+    private Outcome<Todo> tryUpdateOnce(UUID id, String title, Integer order, Boolean completed, Long version) {
+        final Optional<Todo> todo = todoRepository.findByID(id);
+        if (todo.isEmpty()) return Outcome.failure(Outcome.Reason.TODO_NOT_FOUND);
+        final Todo todoToUpdate = todo.get();
+        if (version != null && version != todoToUpdate.version()) return Outcome.failure(Outcome.Reason.VERSION_CONFLICT);
 
-        return todoRepository.update(updatedTodo);
+        final Todo updatedTodo = todoToUpdate.merge(title, order, completed);
+        if (updatedTodo == todoToUpdate) return Outcome.success(todoToUpdate);
+
+        if (title == null && order == null) {
+            final Optional<Todo> updated = todoRepository.updateCompleted(updatedTodo);
+            return updated.isPresent() ? Outcome.success(updated.get()) : Outcome.failure(Outcome.Reason.VERSION_CONFLICT);
+        }
+
+        final boolean titleChanged = title != null && !todoToUpdate.title().equals(title);
+        final boolean orderChanged = order != null && order != todoToUpdate.order();
+
+        if(titleChanged) {
+            final Outcome.Reason invalidTitle = reserveTitle(title);
+            if (invalidTitle != null) return Outcome.failure(invalidTitle);
+        }
+        if(orderChanged) {
+            final Outcome.Reason invalidOrder = reserveOrder(order);
+            if (invalidOrder != null) {
+                if (titleChanged) uniquenessRegistry.releaseTitle(title);
+                return Outcome.failure(invalidOrder);
+            }
+        }
+
+        try {
+            final Optional<Todo> updated = todoRepository.update(updatedTodo);
+            if (updated.isEmpty()) return Outcome.failure(Outcome.Reason.VERSION_CONFLICT);
+
+            uniquenessRegistry.hold(updated.get());
+            return Outcome.success(updated.get());
+        } catch (UniquenessViolationException e) {
+            return Outcome.failure(e.reason());
+        } finally {
+            if (titleChanged) uniquenessRegistry.releaseTitle(title);
+            if (orderChanged) uniquenessRegistry.releaseOrder(order);
+        }
     }
 
     @Override
     public void deleteById(UUID id) throws TodoNotFoundException {
-        if(!todoRepository.existsById(id)) throw new TodoNotFoundException();
-        todoRepository.delete(id);
+        if (tryDeleteById(id) instanceof Outcome.Failure<Void>) throw new TodoNotFoundException();
+    }
+
+    @Override
+    public Outcome<Void> tryDeleteById(UUID id) {
+        if(todoRepository.delete(id) == 0) return Outcome.failure(Outcome.Reason.TODO_NOT_FOUND);
+        uniquenessRegistry.forget(List.of(id));
+        return Outcome.success(null);
+    }
+
+    @Override
+    public int deleteAllById(Collection<UUID> ids) {
+        final int deleted = todoRepository.deleteAllById(ids);
+        uniquenessRegistry.forget(ids);
+        return deleted;
     }
 
     @Override
     public void deleteCompleted() {
-        todoRepository.deleteByCompleted(true);
+        uniquenessRegistry.forget(todoRepository.deleteByCompleted(true));
     }
 
     @Override
     public void deleteAll() {
         todoRepository.deleteAll();
+        uniquenessRegistry.forgetAll();
+    }
+
+    /**
+     * Imports the todos chunk by chunk, each chunk being checked with one query for titles and one for orders, then reserved in the
+     * registry and inserted as a batch. Only a chunk is held in memory at a time. When the database refuses a batch,
+     * because of a todo written by another process in between, its todos are inserted one by one leaving out the
+     * refused ones when skipping conflicts, and the import stops at the first refused one otherwise, the batch being
+     * left out. Records are counted from 1, whatever the format.
+     */
+    @Override
+    public ImportReport importAll(Iterator<NewTodo> todos, ConflictPolicy conflictPolicy, int chunkSize, Consumer<ImportReport> progress) {
+        final long startedAt = System.nanoTime();
+        final List<NewTodo> chunk = new ArrayList<>(chunkSize);
+        long record = 0;
+        long imported = 0;
+        long skipped = 0;
+
+        while (todos.hasNext()) {
+            chunk.clear();
+            while (chunk.size() < chunkSize && todos.hasNext()) chunk.add(todos.next());
+
+            final Set<String> titlesInUse = todoRepository.findExistingTitles(titlesOf(chunk));
+            final Set<Integer> ordersInUse = todoRepository.findExistingOrders(ordersOf(chunk));
+            final List<NewTodo> accepted = new ArrayList<>(chunk.size());
+            final long[] acceptedRecords = new long[chunk.size()];
+            final boolean[] withNextOrder = new boolean[chunk.size()];
+
+            for (NewTodo todo : chunk) {
+                record++;
+                NewTodo reserved = todo;
+                Outcome.Reason refusal = reserveImported(todo, titlesInUse, ordersInUse);
+                if (refusal == null && todo.order() == null) {
+                    final int order = uniquenessRegistry.reserveNextOrder();
+                    if (order >= 0) {
+                        reserved = todo.withOrder(order);
+                        withNextOrder[accepted.size()] = true;
+                    } else {
+                        uniquenessRegistry.releaseTitle(todo.title());
+                        refusal = Outcome.Reason.ORDER_ALREADY_IN_USE;
+                    }
+                }
+                if (refusal != null) {
+                    if (conflictPolicy == ConflictPolicy.FAIL) {
+                        cancelNextOrders(accepted, withNextOrder, 0);
+                        release(accepted);
+                        return new ImportReport(imported, skipped, refusal, record, Duration.ofNanos(System.nanoTime() - startedAt));
+                    }
+                    skipped++;
+                    continue;
+                }
+
+                acceptedRecords[accepted.size()] = record;
+                accepted.add(reserved);
+            }
+
+            if (!accepted.isEmpty()) {
+                int written = 0;
+                try {
+                    todoRepository.createAll(accepted).forEach(uniquenessRegistry::hold);
+                    written = accepted.size();
+                    imported += written;
+                } catch (UniquenessViolationException e) {
+                    if (conflictPolicy == ConflictPolicy.FAIL) {
+                        final long failedRecord = firstRefusedRecord(accepted, acceptedRecords);
+                        return new ImportReport(imported, skipped, e.reason(), failedRecord, Duration.ofNanos(System.nanoTime() - startedAt));
+                    }
+                    for (; written < accepted.size(); written++) {
+                        final NewTodo todo = accepted.get(written);
+                        try {
+                            todoRepository.createAll(List.of(todo)).forEach(uniquenessRegistry::hold);
+                            imported++;
+                        } catch (UniquenessViolationException refused) {
+                            if (withNextOrder[written]) uniquenessRegistry.cancelNextOrder(todo.order());
+                            skipped++;
+                        }
+                    }
+                } finally {
+                    cancelNextOrders(accepted, withNextOrder, written);
+                    release(accepted);
+                }
+            }
+            progress.accept(new ImportReport(imported, skipped, null, 0, Duration.ofNanos(System.nanoTime() - startedAt)));
+        }
+
+        return new ImportReport(imported, skipped, null, 0, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * The record of the first todo whose title or order the database now holds, or of the first todo when the one it
+     * refused has been deleted since.
+     */
+    private long firstRefusedRecord(List<NewTodo> todos, long[] records) {
+        final Set<String> titlesInUse = todoRepository.findExistingTitles(titlesOf(todos));
+        final Set<Integer> ordersInUse = todoRepository.findExistingOrders(ordersOf(todos));
+        for (int i = 0; i < todos.size(); i++) {
+            if (titlesInUse.contains(todos.get(i).title()) || ordersInUse.contains(todos.get(i).order())) return records[i];
+        }
+        return records[0];
+    }
+
+    @Override
+    public void exportAll(Consumer<Todo> consumer) {
+        todoRepository.forEach(consumer);
     }
 
-    private static Function<Todo, Todo> mergeTodo(String title, Integer order, Boolean completed) {
-        return (Todo todo) -> todo
-                .withTitle(Objects.requireNonNullElse(title, todo.title()))
-                .withOrder(Objects.requireNonNullElse(order, todo.order()))
-                .withCompleted(Objects.requireNonNullElse(completed, todo.completed()));
+    /**
+     * Archives chunk by chunk until a chunk comes back short, releasing the orders of each chunk. The completed flags
+     * held back by the repository are written before each chunk, so the archive reads them as they were last set.
+     */
+    @Override
+    public int archiveCompleted(Instant completedBefore, int batchSize) {
+        int archived = 0;
+        List<UUID> ids;
+        do {
+            todoRepository.flush();
+            ids = todoArchive.archiveCompletedBefore(completedBefore, batchSize);
+            uniquenessRegistry.forget(ids);
+            archived += ids.size();
+        } while (ids.size() == batchSize);
+        return archived;
+    }
+
+    @Override
+    public List<ArchivedTodo> findArchived(int page, int size) {
+        return todoArchive.findAll(page, size);
+    }
+
+    @Override
+    public Optional<ArchivedTodo> findArchivedById(UUID id) {
+        return todoArchive.findById(id);
     }
 
-    private void assertTitleIsValid(String title) throws InvalidTitleException, TitleAlreadyInUseException {
-        if (title.isBlank()) throw new InvalidTitleException();
+    /**
+     * Restores the todo with its title, which must be free, and its order, or the next one when it was taken since.
+     */
+    @Override
+    public Outcome<Todo> tryRestore(UUID id) {
+        final Optional<ArchivedTodo> archivedTodo = todoArchive.findById(id);
+        if (archivedTodo.isEmpty()) return Outcome.failure(Outcome.Reason.TODO_NOT_FOUND);
+        final String title = archivedTodo.get().title();
+
+        final Outcome.Reason invalidTitle = reserveTitle(title);
+        if (invalidTitle != null) return Outcome.failure(invalidTitle);
+        final int archivedOrder = archivedTodo.get().order();
+        final boolean nextOrder = reserveOrder(archivedOrder) != null;
+        final int order = nextOrder ? uniquenessRegistry.reserveNextOrder() : archivedOrder;
+        if (order < 0) {
+            uniquenessRegistry.releaseTitle(title);
+            return Outcome.failure(Outcome.Reason.ORDER_ALREADY_IN_USE);
+        }
+
+        try {
+            final Optional<Todo> restoredTodo = todoArchive.restore(id, order);
+            if (restoredTodo.isEmpty()) {
+                if (nextOrder) uniquenessRegistry.cancelNextOrder(order);
+                return Outcome.failure(Outcome.Reason.TODO_NOT_FOUND);
+            }
+
+            uniquenessRegistry.hold(restoredTodo.get());
+            return Outcome.success(restoredTodo.get());
+        } catch (UniquenessViolationException e) {
+            if (nextOrder) uniquenessRegistry.cancelNextOrder(order);
+            return Outcome.failure(e.reason());
+        } catch (RuntimeException e) {
+            if (nextOrder) uniquenessRegistry.cancelNextOrder(order);
+            throw e;
+        } finally {
+            uniquenessRegistry.releaseTitle(title);
+            uniquenessRegistry.releaseOrder(order);
+        }
+    }
+
+    /**
+     * Reserves the title for the write in flight, then checks the database, which alone knows whether it's in use.
+     */
+    private Outcome.Reason reserveTitle(String title) {
+        if (title.isBlank()) return Outcome.Reason.INVALID_TITLE;
+        if (!uniquenessRegistry.reserveTitle(title)) return Outcome.Reason.TITLE_ALREADY_IN_USE;
 
         final int todosWithTitleCount = todoRepository.countByTitle(title);
         if(todosWithTitleCount > 0) {
-            throw new TitleAlreadyInUseException();
+            uniquenessRegistry.releaseTitle(title);
+            return Outcome.Reason.TITLE_ALREADY_IN_USE;
+        }
+        return null;
+    }
+
+    private static List<String> titlesOf(List<NewTodo> todos) {
+        return todos.stream().map(NewTodo::title).filter(Objects::nonNull).toList();
+    }
+
+    private static List<Integer> ordersOf(List<NewTodo> todos) {
+        return todos.stream().map(NewTodo::order).filter(Objects::nonNull).toList();
+    }
+
+    private Outcome.Reason reserveImported(NewTodo todo, Set<String> titlesInUse, Set<Integer> ordersInUse) {
+        if (todo.title() == null || todo.title().isBlank()) return Outcome.Reason.INVALID_TITLE;
+        if (todo.order() != null && todo.order() < 0) return Outcome.Reason.NEGATIVE_ORDER;
+        if (todo.order() != null && todo.order() > Todo.MAX_ORDER) return Outcome.Reason.ORDER_TOO_HIGH;
+        if (titlesInUse.contains(todo.title())) return Outcome.Reason.TITLE_ALREADY_IN_USE;
+        if (todo.order() != null && ordersInUse.contains(todo.order())) return Outcome.Reason.ORDER_ALREADY_IN_USE;
+
+        if (!uniquenessRegistry.reserveTitle(todo.title())) return Outcome.Reason.TITLE_ALREADY_IN_USE;
+        if (todo.order() != null && !uniquenessRegistry.reserveOrder(todo.order())) {
+            uniquenessRegistry.releaseTitle(todo.title());
+            return Outcome.Reason.ORDER_ALREADY_IN_USE;
+        }
+        return null;
+    }
+
+    /**
+     * Forgets the next orders taken by the todos from the given one on, which were not written.
+     */
+    private void cancelNextOrders(List<NewTodo> todos, boolean[] withNextOrder, int from) {
+        for (int i = from; i < todos.size(); i++) {
+            if (withNextOrder[i]) uniquenessRegistry.cancelNextOrder(todos.get(i).order());
+        }
+    }
+
+    private void release(List<NewTodo> reserved) {
+        for (NewTodo todo : reserved) {
+            uniquenessRegistry.releaseTitle(todo.title());
+            uniquenessRegistry.releaseOrder(todo.order());
         }
     }
 
-    private void assertOrderIsPositive(int order) throws NegativeOrderException, OrderAlreadyInUseException {
-        if (order < 0) throw new NegativeOrderException();
+    /**
+     * Reserves the order for the write in flight, then checks the database, like {@link #reserveTitle(String)}.
+     */
+    private Outcome.Reason reserveOrder(int order) {
+        if (order < 0) return Outcome.Reason.NEGATIVE_ORDER;
+        if (order > Todo.MAX_ORDER) return Outcome.Reason.ORDER_TOO_HIGH;
+        if (!uniquenessRegistry.reserveOrder(order)) return Outcome.Reason.ORDER_ALREADY_IN_USE;
 
-        final int todosWithOrdersCount = todoRepository.countByOrder(order);
-        if(todosWithOrdersCount > 0) {
-            throw new OrderAlreadyInUseException();
+        if (todoRepository.countByOrder(order) > 0) {
+            uniquenessRegistry.releaseOrder(order);
+            return Outcome.Reason.ORDER_ALREADY_IN_USE;
         }
+        return null;
     }
-}
\ No newline at end of file
+}
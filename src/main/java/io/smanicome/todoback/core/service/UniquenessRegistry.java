@@ -0,0 +1,133 @@
+package io.smanicome.todoback.core.service;
+
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Titles and orders claimed by the writes in flight in this process. A title or an order is reserved atomically before
+ * being checked against the database and written, so concurrent writes of this process claiming the same one are told
+ * apart in memory, and released once the write is done or has failed: whether one is in use is only decided by the
+ * database, whose unique indexes also catch the writes of other processes. Titles are kept in a concurrent set, whose
+ * bins are locked independently, and orders in an {@link OrderIndex}.
+ * <p>
+ * The orders of the todos known to this process, rebuilt from the repository on startup and followed through its
+ * writes, are kept in another {@link OrderIndex}, from which new todos take the order following the highest one without
+ * querying the database. It's only a hint: an order it misses, written by another process, is refused by the database.
+ * The order each todo holds is kept in {@link TodoOrders}, without boxing, to forget it once the todo is rewritten or
+ * deleted.
+ */
+@Component
+public class UniquenessRegistry {
+    private final TodoRepository todoRepository;
+    private final Set<String> titles = ConcurrentHashMap.newKeySet();
+    private final OrderIndex ordersInFlight = new OrderIndex();
+    private final OrderIndex knownOrders = new OrderIndex();
+    private final TodoOrders todoOrders = new TodoOrders();
+
+    public UniquenessRegistry(TodoRepository todoRepository) {
+        this.todoRepository = todoRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        todoRepository.forEach(this::hold);
+    }
+
+    public boolean reserveTitle(String title) {
+        return titles.add(title);
+    }
+
+    public void releaseTitle(String title) {
+        titles.remove(title);
+    }
+
+    /**
+     * Reserves the order for a write, false when it's above {@link Todo#MAX_ORDER} or another write of this process
+     * already claims it.
+     */
+    public boolean reserveOrder(int order) {
+        return order <= Todo.MAX_ORDER && ordersInFlight.add(order);
+    }
+
+    public void releaseOrder(int order) {
+        ordersInFlight.remove(order);
+    }
+
+    public int maxOrder() {
+        return knownOrders.max();
+    }
+
+    /**
+     * Reserves the order following the highest one known, or the lowest free one once {@link Todo#MAX_ORDER} is taken,
+     * going on with the following one when a concurrent write took it first. Returns -1 when every order is taken.
+     * The order is known from then on: once its write is done, it's released with {@link #releaseOrder(int)}, and
+     * forgotten with {@link #cancelNextOrder(int)} when it failed.
+     */
+    public int reserveNextOrder() {
+        int order = nextOrderAfter(-1);
+        while (order >= 0 && order <= Todo.MAX_ORDER) {
+            if (knownOrders.add(order)) {
+                if (ordersInFlight.add(order)) return order;
+                knownOrders.remove(order);
+            }
+            order = nextOrderAfter(order);
+        }
+        return -1;
+    }
+
+    private int nextOrderAfter(int order) {
+        final int max = Math.max(knownOrders.max(), order);
+        return max < Todo.MAX_ORDER ? max + 1 : knownOrders.nextFree(order + 1);
+    }
+
+    /**
+     * Forgets an order reserved by {@link #reserveNextOrder()} whose write failed, so it doesn't hold the next orders
+     * back.
+     */
+    public void cancelNextOrder(int order) {
+        ordersInFlight.remove(order);
+        knownOrders.remove(order);
+    }
+
+    /**
+     * Records an order in use, written by another process, so the next orders follow it.
+     */
+    public void learnOrder(int order) {
+        knownOrders.add(order);
+    }
+
+    /**
+     * Records the order now held by the written todo, forgetting the one it held before.
+     */
+    public void hold(Todo todo) {
+        knownOrders.add(todo.order());
+
+        final int previous = todoOrders.put(todo.id(), todo.order());
+        if (previous != TodoOrders.NONE && previous != todo.order()) knownOrders.remove(previous);
+    }
+
+    /**
+     * Forgets the orders held by deleted todos.
+     */
+    public void forget(Collection<UUID> ids) {
+        for (UUID id : ids) {
+            final int order = todoOrders.remove(id);
+            if (order != TodoOrders.NONE) knownOrders.remove(order);
+        }
+    }
+
+    /**
+     * Forgets every known order, the titles and orders in flight being released by their writes.
+     */
+    public void forgetAll() {
+        todoOrders.clear();
+        knownOrders.clear();
+    }
+}
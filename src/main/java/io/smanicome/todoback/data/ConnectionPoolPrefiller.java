@@ -0,0 +1,61 @@
+package io.smanicome.todoback.data;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Opens the idle connections of the given pools at once, by borrowing as many connections as each pool
+ * keeps idle, instead of leaving Hikari to add them in the background while the first requests wait for them. A pool
+ * that can't be filled is logged and skipped, a replica being down must not hold the instance back.
+ */
+public class ConnectionPoolPrefiller {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPoolPrefiller.class);
+
+    private final Collection<DataSource> dataSources;
+
+    public ConnectionPoolPrefiller(Collection<DataSource> dataSources) {
+        this.dataSources = dataSources;
+    }
+
+    public int prefill() {
+        int opened = 0;
+        for (DataSource dataSource : dataSources) opened += prefill(dataSource);
+        return opened;
+    }
+
+    private static int prefill(DataSource dataSource) {
+        final HikariDataSource pool;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) return 0;
+            pool = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return 0;
+        }
+
+        final List<Connection> connections = new ArrayList<>(pool.getMinimumIdle());
+        try {
+            while (connections.size() < pool.getMinimumIdle()) connections.add(pool.getConnection());
+        } catch (SQLException e) {
+            LOGGER.warn("pool={} opened={} could not be prefilled", pool.getPoolName(), connections.size(), e);
+        } finally {
+            connections.forEach(ConnectionPoolPrefiller::release);
+        }
+        return connections.size();
+    }
+
+    private static void release(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.warn("could not release a prefilled connection", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoArchive;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.data.jpa.CrudArchivedTodoRepository;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Archives a chunk with an INSERT ... SELECT into TODOS_ARCHIVE followed by a DELETE of the same ids, so rows are only
+ * locked for the time of a chunk.
+ */
+@Component
+public class JpaTodoArchive implements TodoArchive {
+    private final CrudTodoRepository todos;
+    private final CrudArchivedTodoRepository archivedTodos;
+    private final TodoChanges todoChanges;
+
+    public JpaTodoArchive(CrudTodoRepository todos, CrudArchivedTodoRepository archivedTodos, TodoChanges todoChanges) {
+        this.todos = todos;
+        this.archivedTodos = archivedTodos;
+        this.todoChanges = todoChanges;
+    }
+
+    @Override
+    @Transactional
+    public List<UUID> archiveCompletedBefore(Instant completedBefore, int batchSize) {
+        final List<UUID> ids = todos.findIdsCompletedBefore(completedBefore, PageRequest.ofSize(batchSize));
+        if (ids.isEmpty()) return ids;
+
+        archivedTodos.archiveTodosByIdIn(ids, Instant.now());
+        todos.deleteTodosByIdIn(ids);
+        todoChanges.recordChange();
+        return ids;
+    }
+
+    @Override
+    public List<ArchivedTodo> findAll(int page, int size) {
+        return archivedTodos.findArchivedTodos(PageRequest.of(page, size));
+    }
+
+    @Override
+    public Optional<ArchivedTodo> findById(UUID id) {
+        return archivedTodos.findArchivedTodoById(id);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Todo> restore(UUID id, int order) {
+        final Optional<ArchivedTodo> archivedTodo = archivedTodos.findArchivedTodoById(id);
+        if (archivedTodo.isEmpty()) return Optional.empty();
+
+        try {
+            todos.restoreTodoById(id, order, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            throw UniqueConstraints.translate(e);
+        }
+        archivedTodos.deleteArchivedTodoById(id);
+        todoChanges.recordChange();
+        return Optional.of(new Todo(id, archivedTodo.get().title(), order, true));
+    }
+}
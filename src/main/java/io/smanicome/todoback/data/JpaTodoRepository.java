@@ -1,19 +1,47 @@
 package io.smanicome.todoback.data;
 
+import io.smanicome.todoback.core.model.NewTodo;
 import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
 import io.smanicome.todoback.core.repository.TodoRepository;
 import io.smanicome.todoback.data.jpa.CrudTodoRepository;
 import io.smanicome.todoback.data.jpa.TodoEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
-
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Single todos are read through projections unless the second-level cache is enabled, in which case their entities are
+ * loaded so the cache can answer. With soft deletes, deleting only stamps the deleted_at column of the todos, in a single statement, and the tombstones
+ * are physically removed later by the {@link TombstonePurger}.
+ */
 @Component
 public class JpaTodoRepository implements TodoRepository {
     private final CrudTodoRepository repository;
-
-    public JpaTodoRepository(CrudTodoRepository repository) {
+    private final TodoChanges todoChanges;
+    private final boolean softDelete;
+    private final boolean entityCache;
+    private final Optional<PartitionedTodoReader> partitionedTodoReader;
+
+    public JpaTodoRepository(
+            CrudTodoRepository repository,
+            TodoChanges todoChanges,
+            @Value("${todo.soft-delete.enabled:false}") boolean softDelete,
+            @Value("${todo.cache.enabled:false}") boolean entityCache,
+            Optional<PartitionedTodoReader> partitionedTodoReader
+    ) {
         this.repository = repository;
+        this.todoChanges = todoChanges;
+        this.softDelete = softDelete;
+        this.entityCache = entityCache;
+        this.partitionedTodoReader = partitionedTodoReader;
     }
 
     @Override
@@ -23,64 +51,186 @@ public class JpaTodoRepository implements TodoRepository {
         entity.setOrder(order);
         entity.setCompleted(false);
 
-        entity = repository.save(entity);
+        try {
+            entity = repository.save(entity);
+        } catch (DataIntegrityViolationException e) {
+            throw UniqueConstraints.translate(e);
+        }
+        todoChanges.recordChange();
 
         return mapEntity(entity);
     }
 
     @Override
-    public Optional<Todo> findByID(UUID id) {
-        return repository.findById(id).map(JpaTodoRepository::mapEntity);
+    public List<Todo> createAll(List<NewTodo> todos) {
+        final List<TodoEntity> entities = todos.stream()
+                .map(todo -> new TodoEntity(null, todo.title(), todo.order(), todo.completed()))
+                .toList();
+
+        try {
+            repository.insertAll(entities);
+        } catch (DataIntegrityViolationException e) {
+            throw UniqueConstraints.translate(e);
+        }
+        todoChanges.recordChange();
+
+        return entities.stream().map(JpaTodoRepository::mapEntity).toList();
     }
 
     @Override
-    public int getMaxOrder() {
-        return repository.findMaxOrder().orElse(0);
+    @Transactional(readOnly = true)
+    public Optional<Todo> findByID(UUID id) {
+        if (entityCache) return repository.findById(id).map(JpaTodoRepository::mapEntity);
+        return repository.findTodoById(id);
     }
 
+    /**
+     * Not transactional, so a partitioned read doesn't hold a connection while its partitions wait for theirs.
+     */
     @Override
     public List<Todo> findAll() {
-        final List<Todo> todos = new ArrayList<>();
+        final List<Todo> todos = partitionedTodoReader.isPresent()
+                ? partitionedTodoReader.get().findAll()
+                : repository.findAllTodos();
+        return Collections.unmodifiableList(todos);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Todo> consumer) {
+        try (Stream<Todo> todos = repository.streamAllTodos()) {
+            todos.forEach(consumer);
+        }
+    }
 
-        repository.findAll().forEach(todoEntity -> todos.add(mapEntity(todoEntity)));
+    /**
+     * Writes the todo with an UPDATE matching the version it was read at, which changes nothing when another update got
+     * there first. With the second-level cache, the todo is merged instead so its entity stays cached: Hibernate refuses
+     * to merge it when it was read at another version than the current one, and only its new version is taken back.
+     */
+    @Override
+    public Optional<Todo> update(Todo todo) {
+        if (!entityCache) {
+            final Instant completedAt = todo.completed() ? Instant.now() : null;
+            final int updated;
+            try {
+                updated = repository.updateAtVersion(todo.id(), todo.version(), todo.title(), todo.order(), todo.completed(), completedAt);
+            } catch (DataIntegrityViolationException e) {
+                throw UniqueConstraints.translate(e);
+            }
+            if (updated == 0) return Optional.empty();
+            todoChanges.recordChange();
+            return Optional.of(todo.withVersion(todo.version() + 1));
+        }
+
+        final TodoEntity savedEntity;
+        try {
+            savedEntity = repository.save(mapTodo(todo));
+        } catch (OptimisticLockingFailureException e) {
+            return Optional.empty();
+        } catch (DataIntegrityViolationException e) {
+            throw UniqueConstraints.translate(e);
+        }
+        todoChanges.recordChange();
+        return Optional.of(todo.withVersion(savedEntity.getVersion()));
+    }
 
-        return Collections.unmodifiableList(todos);
+    @Override
+    public Optional<Todo> updateCompleted(Todo todo) {
+        final Instant completedAt = todo.completed() ? Instant.now() : null;
+        if (repository.updateCompletedAtVersion(todo.id(), todo.version(), todo.completed(), completedAt) == 0) return Optional.empty();
+        todoChanges.recordChange();
+        return Optional.of(todo.withVersion(todo.version() + 1));
+    }
+
+    @Override
+    public void updateCompleted(Collection<UUID> ids, boolean completed) {
+        repository.updateCompleted(ids, completed, completed ? Instant.now() : null);
+        todoChanges.recordChange();
     }
 
     @Override
-    public Todo update(Todo todo) {
-        final TodoEntity entity = mapTodo(todo);
-        return mapEntity(repository.save(entity));
+    public int delete(UUID id) {
+        final int deleted = softDelete ? repository.softDeleteTodoById(id, Instant.now()) : repository.deleteTodoById(id);
+        if (deleted > 0) todoChanges.recordChange();
+        return deleted;
     }
 
     @Override
-    public void delete(UUID id) {
-        repository.deleteById(id);
+    public int deleteAllById(Collection<UUID> ids) {
+        if (ids.isEmpty()) return 0;
+        final int deleted = softDelete
+                ? repository.softDeleteTodosByIdIn(ids, Instant.now())
+                : repository.deleteTodosByIdIn(ids);
+        if (deleted > 0) todoChanges.recordChange();
+        return deleted;
     }
 
     @Override
-    public void deleteByCompleted(boolean completed) {
-        repository.deleteByCompleted(completed);
+    @Transactional
+    public List<UUID> deleteByCompleted(boolean completed) {
+        final List<UUID> deletedIds;
+        if (softDelete) {
+            deletedIds = repository.findIdsByCompleted(completed);
+            if (!deletedIds.isEmpty()) repository.softDeleteTodosByIdIn(deletedIds, Instant.now());
+        } else {
+            deletedIds = repository.deleteByCompleted(completed).stream().map(TodoEntity::getId).toList();
+        }
+        todoChanges.recordChange();
+        return deletedIds;
     }
 
     @Override
     public void deleteAll() {
-        repository.deleteAll();
+        if (softDelete) repository.softDeleteAllTodos(Instant.now());
+        else repository.deleteAll();
+        todoChanges.recordChange();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsById(UUID id) {
+        if (entityCache) return repository.findById(id).isPresent();
         return repository.existsById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public int countByTitle(String title) {
+        return repository.countByTitle(title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findExistingTitles(Collection<String> titles) {
+        if (titles.isEmpty()) return Set.of();
+        return repository.findTitlesIn(titles);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public int countByOrder(int order) {
         return repository.countByOrder(order);
     }
 
     @Override
-    public int countByTitle(String title) {
-        return repository.countByTitle(title);
+    @Transactional(readOnly = true)
+    public Set<Integer> findExistingOrders(Collection<Integer> orders) {
+        if (orders.isEmpty()) return Set.of();
+        return repository.findOrdersIn(orders);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int findMaxOrder() {
+        return repository.findOrderRange().max();
+    }
+
+    /**
+     * Nothing is held back, every change being written straight away.
+     */
+    @Override
+    public void flush() {
     }
 
     private static Todo mapEntity(TodoEntity todoEntity) {
@@ -88,7 +238,8 @@ public class JpaTodoRepository implements TodoRepository {
             todoEntity.getId(),
             todoEntity.getTitle(),
             todoEntity.getOrder(),
-            todoEntity.isCompleted()
+            todoEntity.isCompleted(),
+            todoEntity.getVersion()
         );
     }
 
@@ -97,7 +248,8 @@ public class JpaTodoRepository implements TodoRepository {
                 todo.id(),
                 todo.title(),
                 todo.order(),
-                todo.completed()
+                todo.completed(),
+                todo.version()
         );
     }
 }
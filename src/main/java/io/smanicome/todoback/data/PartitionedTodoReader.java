@@ -0,0 +1,52 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import io.smanicome.todoback.data.jpa.OrderRange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads lists of at least the threshold as contiguous ranges of orders, each one in its own read-only transaction and
+ * so on its own connection, on the given pool. The ranges start at the orders splitting the todos sorted by order in
+ * partitions of as many rows, read in one query, so gaps between orders don't leave some partitions empty and others
+ * full. Partitions are concatenated in the order of their ranges, the first and last ones being open-ended, so the list
+ * is ordered by {@code order}.
+ * <p>
+ * The list isn't a single snapshot of the todos: each partition sees the todos as of its own transaction, so a todo
+ * whose order is changed from one range to another while they're read may be listed twice or not at all, and a todo
+ * created or deleted meanwhile may or may not be.
+ */
+public class PartitionedTodoReader {
+    private final CrudTodoRepository repository;
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final int partitions;
+
+    public PartitionedTodoReader(CrudTodoRepository repository, ForkJoinPool pool, int threshold, int partitions) {
+        this.repository = repository;
+        this.pool = pool;
+        this.threshold = threshold;
+        this.partitions = partitions;
+    }
+
+    public List<Todo> findAll() {
+        final OrderRange range = repository.findOrderRange();
+        if (range.count() < threshold) return repository.findAllTodos();
+
+        final List<Integer> starts = repository.findPartitionStarts(partitions);
+        final List<ForkJoinTask<List<Todo>>> reads = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            final int from = i == 0 ? Integer.MIN_VALUE : starts.get(i);
+            final int to = i == starts.size() - 1 ? Integer.MAX_VALUE : starts.get(i + 1) - 1;
+            reads.add(pool.submit(() -> repository.findTodosWithOrderBetween(from, to)));
+        }
+
+        final List<Todo> todos = new ArrayList<>((int) range.count());
+        for (ForkJoinTask<List<Todo>> read : reads) todos.addAll(read.join());
+        return todos;
+    }
+}
@@ -0,0 +1,37 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Periodically removes the tombstones older than the retention, by batches separated by a pause so the purge doesn't
+ * compete with requests for the table.
+ */
+public class TombstonePurger {
+    private final CrudTodoRepository repository;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration pause;
+
+    public TombstonePurger(CrudTodoRepository repository, Duration retention, int batchSize, Duration pause) {
+        this.repository = repository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+    }
+
+    @Scheduled(initialDelayString = "${todo.soft-delete.purge-interval:PT1M}", fixedDelayString = "${todo.soft-delete.purge-interval:PT1M}")
+    public int purge() throws InterruptedException {
+        final Instant deletedBefore = Instant.now().minus(retention);
+        int purged = 0;
+        while (true) {
+            final int batch = repository.purgeTombstones(deletedBefore, batchSize);
+            purged += batch;
+            if (batch < batchSize) return purged;
+            Thread.sleep(pause);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.exception.UniquenessViolationException;
+import io.smanicome.todoback.core.service.Outcome;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Recognizes the unique indexes on the titles and orders of the todos, see the schemas in db/, by their name in the
+ * message of the database.
+ */
+final class UniqueConstraints {
+    static final String TITLE_INDEX = "TODOS_TITLE_UNIQUE_IDX";
+    static final String ORDER_INDEX = "TODOS_ORDER_UNIQUE_IDX";
+
+    private UniqueConstraints() {}
+
+    /**
+     * The violation as a {@link UniquenessViolationException} when it's one of a unique index on the todos, unchanged
+     * otherwise.
+     */
+    static RuntimeException translate(DataIntegrityViolationException e) {
+        final String message = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase(Locale.ROOT);
+        if (message.contains(TITLE_INDEX)) return new UniquenessViolationException(Outcome.Reason.TITLE_ALREADY_IN_USE, e);
+        if (message.contains(ORDER_INDEX)) return new UniquenessViolationException(Outcome.Reason.ORDER_ALREADY_IN_USE, e);
+        return e;
+    }
+}
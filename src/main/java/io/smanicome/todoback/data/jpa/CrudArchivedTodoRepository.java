@@ -0,0 +1,34 @@
+package io.smanicome.todoback.data.jpa;
+
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CrudArchivedTodoRepository extends CrudRepository<ArchivedTodoEntity, UUID> {
+    @Modifying
+    @Query(value = "INSERT INTO ArchivedTodoEntity (id, title, order, completedAt, archivedAt) SELECT t.id, t.title, t.order, t.completedAt, :archivedAt FROM TodoEntity t WHERE t.id IN :ids")
+    int archiveTodosByIdIn(Collection<UUID> ids, Instant archivedAt);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT new io.smanicome.todoback.core.model.ArchivedTodo(a.id, a.title, a.order, a.completedAt, a.archivedAt) FROM ArchivedTodoEntity a ORDER BY a.archivedAt DESC, a.id")
+    List<ArchivedTodo> findArchivedTodos(Pageable page);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT new io.smanicome.todoback.core.model.ArchivedTodo(a.id, a.title, a.order, a.completedAt, a.archivedAt) FROM ArchivedTodoEntity a WHERE a.id = :id")
+    Optional<ArchivedTodo> findArchivedTodoById(UUID id);
+
+    @Modifying
+    @Query(value = "DELETE FROM ArchivedTodoEntity a WHERE a.id = :id")
+    int deleteArchivedTodoById(UUID id);
+}
@@ -1,22 +1,153 @@
 package io.smanicome.todoback.data.jpa;
 
+import io.smanicome.todoback.core.model.Todo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Repository
-public interface CrudTodoRepository extends CrudRepository<TodoEntity, UUID> {
-    @Query(value = "SELECT MAX(t.order) FROM TodoEntity t")
-    Optional<Integer> findMaxOrder();
+public interface CrudTodoRepository extends CrudRepository<TodoEntity, UUID>, TodoBatchInserts {
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query(value = "SELECT new io.smanicome.todoback.core.model.Todo(t.id, t.title, t.order, t.completed, t.version) FROM TodoEntity t")
+    List<Todo> findAllTodos();
 
-    int countByOrder(int order);
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000")
+    })
+    @Query(value = "SELECT new io.smanicome.todoback.core.model.Todo(t.id, t.title, t.order, t.completed, t.version) FROM TodoEntity t ORDER BY t.order")
+    Stream<Todo> streamAllTodos();
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query(value = "SELECT new io.smanicome.todoback.core.model.Todo(t.id, t.title, t.order, t.completed, t.version) FROM TodoEntity t WHERE t.id = :id")
+    Optional<Todo> findTodoById(UUID id);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT new io.smanicome.todoback.data.jpa.OrderRange(COALESCE(MIN(t.order), 0), COALESCE(MAX(t.order), 0), COUNT(t)) FROM TodoEntity t")
+    OrderRange findOrderRange();
+
+    /**
+     * First order of each of the given number of partitions of the todos sorted by order, which hold as many todos
+     * give or take one. Native, for the window function, so tombstones are filtered out by hand.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT MIN(p.\"order\") FROM (SELECT t.\"order\", NTILE(:partitions) OVER (ORDER BY t.\"order\") AS tile FROM todos t WHERE t.deleted_at IS NULL) p GROUP BY p.tile ORDER BY p.tile", nativeQuery = true)
+    List<Integer> findPartitionStarts(int partitions);
 
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000")
+    })
+    @Query(value = "SELECT new io.smanicome.todoback.core.model.Todo(t.id, t.title, t.order, t.completed, t.version) FROM TodoEntity t WHERE t.order BETWEEN :from AND :to ORDER BY t.order")
+    List<Todo> findTodosWithOrderBetween(int from, int to);
+
+    /**
+     * Like the other updates at a version, clears the persistence context, whose entity is stale once updated, or would
+     * be read again on a retry.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE TodoEntity t SET t.title = :title, t.order = :order, t.completed = :completed, t.completedAt = :completedAt, t.version = t.version + 1 WHERE t.id = :id AND t.version = :version AND t.deletedAt IS NULL")
+    int updateAtVersion(UUID id, long version, String title, int order, boolean completed, Instant completedAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE TodoEntity t SET t.completed = :completed, t.completedAt = :completedAt, t.version = t.version + 1 WHERE t.id = :id AND t.version = :version AND t.deletedAt IS NULL")
+    int updateCompletedAtVersion(UUID id, long version, boolean completed, Instant completedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE TodoEntity t SET t.completed = :completed, t.completedAt = :completedAt, t.version = t.version + 1 WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    int updateCompleted(Collection<UUID> ids, boolean completed, Instant completedAt);
+
+    /**
+     * Locks the returned chunk, so its todos can't be changed until they're archived.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "SELECT t.id FROM TodoEntity t WHERE t.completed = true AND t.completedAt < :completedBefore ORDER BY t.completedAt")
+    List<UUID> findIdsCompletedBefore(Instant completedBefore, Pageable page);
+
+    @Modifying
+    @Query(value = "INSERT INTO TodoEntity (id, title, order, completed, completedAt) SELECT a.id, a.title, :order, true, :completedAt FROM ArchivedTodoEntity a WHERE a.id = :id")
+    int restoreTodoById(UUID id, int order, Instant completedAt);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     int countByTitle(String title);
 
+    @Query(value = "SELECT t.title FROM TodoEntity t WHERE t.title IN :titles")
+    Set<String> findTitlesIn(Collection<String> titles);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    int countByOrder(int order);
+
+    @Query(value = "SELECT t.order FROM TodoEntity t WHERE t.order IN :orders")
+    Set<Integer> findOrdersIn(Collection<Integer> orders);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM TodoEntity t WHERE t.id = :id")
+    int deleteTodoById(UUID id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM TodoEntity t WHERE t.id IN :ids")
+    int deleteTodosByIdIn(Collection<UUID> ids);
+
+    @Transactional
+    List<TodoEntity> deleteByCompleted(boolean completed);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE TodoEntity t SET t.deletedAt = :deletedAt WHERE t.id = :id AND t.deletedAt IS NULL")
+    int softDeleteTodoById(UUID id, Instant deletedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE TodoEntity t SET t.deletedAt = :deletedAt WHERE t.id IN :ids AND t.deletedAt IS NULL")
+    int softDeleteTodosByIdIn(Collection<UUID> ids, Instant deletedAt);
+
+    /**
+     * Locks the returned todos, so they can't be changed until they're soft deleted.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "SELECT t.id FROM TodoEntity t WHERE t.completed = :completed")
+    List<UUID> findIdsByCompleted(boolean completed);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE TodoEntity t SET t.deletedAt = :deletedAt WHERE t.deletedAt IS NULL")
+    int softDeleteAllTodos(Instant deletedAt);
+
+    /**
+     * Native, as tombstones are filtered out of every query on {@link TodoEntity}.
+     */
     @Transactional
-    void deleteByCompleted(boolean completed);
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "TODOS"))
+    @Query(value = "DELETE FROM todos WHERE id IN (SELECT id FROM todos WHERE deleted_at < :deletedBefore ORDER BY deleted_at LIMIT :limit)", nativeQuery = true)
+    int purgeTombstones(Instant deletedBefore, int limit);
 }
@@ -0,0 +1,4 @@
+package io.smanicome.todoback.data.jpa;
+
+public record OrderRange(int min, int max, long count) {
+}
@@ -0,0 +1,31 @@
+package io.smanicome.todoback.data.jpa;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Supplies version 7 UUIDs: a 48 bits unix timestamp in milliseconds, followed by a 12 bits sequence making ids
+ * generated within the same millisecond monotonic, and 62 random bits.
+ */
+public class TimeOrderedUuidSupplier implements Supplier<UUID> {
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    @Override
+    public UUID get() {
+        final long timestampAndSequence = lastTimestampAndSequence.updateAndGet(
+                last -> Math.max(last + 1, System.currentTimeMillis() << SEQUENCE_BITS)
+        );
+        final long timestamp = timestampAndSequence >>> SEQUENCE_BITS;
+        final long sequence = timestampAndSequence & SEQUENCE_MASK;
+
+        final long mostSignificantBits = (timestamp << 16) | 0x7000L | sequence;
+        final long leastSignificantBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
@@ -0,0 +1,7 @@
+package io.smanicome.todoback.data.jpa;
+
+import java.util.List;
+
+public interface TodoBatchInserts {
+    void insertAll(List<TodoEntity> entities);
+}
@@ -0,0 +1,34 @@
+package io.smanicome.todoback.data.jpa;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserts all the entities as a single JDBC batch, then detaches them so the persistence context does not grow with
+ * the number of inserted rows.
+ */
+public class TodoBatchInsertsImpl implements TodoBatchInserts {
+    private final EntityManager entityManager;
+
+    public TodoBatchInsertsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<TodoEntity> entities) {
+        final Session session = entityManager.unwrap(Session.class);
+        final Integer batchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(entities.size());
+        try {
+            entities.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(batchSize);
+        }
+    }
+}
@@ -2,17 +2,25 @@ package io.smanicome.todoback.data.jpa;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Where;
 import org.springframework.data.annotation.PersistenceCreator;
 
+import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 
 @Entity
+@Where(clause = "deleted_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = TodoEntity.CACHE_REGION)
 @Table(name = "TODOS")
 public class TodoEntity {
+    public static final String CACHE_REGION = "todos";
+
     @Id
-    @UuidGenerator
+    @TodoId
     @Column(name = "id")
     private UUID id;
 
@@ -26,14 +34,39 @@ public class TodoEntity {
     @Column(name = "completed")
     private boolean completed;
 
+    /**
+     * Last time the todo was written as completed, so a completed todo edited since stays out of the archive longer.
+     */
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    /**
+     * Set when the todo is soft deleted, such a tombstone is hidden from every query until it's purged.
+     */
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
+    /**
+     * Incremented by every update, which only applies to the version it read, so concurrent updates can't overwrite
+     * each other.
+     */
+    @Version
+    @Column(name = "version")
+    private long version;
+
     public TodoEntity() {}
 
-    @PersistenceCreator
     public TodoEntity(UUID id, String name, int order, boolean completed) {
+        this(id, name, order, completed, 0);
+    }
+
+    @PersistenceCreator
+    public TodoEntity(UUID id, String name, int order, boolean completed, long version) {
         this.id = id;
         this.title = name;
         this.order = order;
         this.completed = completed;
+        this.version = version;
     }
 
     public void setId(UUID id) {
@@ -68,6 +101,24 @@ public class TodoEntity {
         return completed;
     }
 
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void stampCompletion() {
+        completedAt = completed ? Instant.now() : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
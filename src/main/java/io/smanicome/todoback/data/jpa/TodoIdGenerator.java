@@ -0,0 +1,46 @@
+package io.smanicome.todoback.data.jpa;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Generates todo ids in-app, either as random (version 4) or time-ordered (version 7) UUIDs depending on the
+ * {@value STRATEGY_SETTING} setting, e.g. {@code spring.jpa.properties.todo.id-strategy=time-ordered}.
+ */
+public class TodoIdGenerator implements BeforeExecutionGenerator {
+    public static final String STRATEGY_SETTING = "todo.id-strategy";
+
+    private final Supplier<UUID> uuidSupplier;
+
+    public TodoIdGenerator(TodoId config, Member member, CustomIdGeneratorCreationContext context) {
+        final String strategy = context.getServiceRegistry()
+                .getService(ConfigurationService.class)
+                .getSetting(STRATEGY_SETTING, StandardConverters.STRING, "random");
+
+        this.uuidSupplier = switch (strategy) {
+            case "random" -> UUID::randomUUID;
+            case "time-ordered" -> new TimeOrderedUuidSupplier();
+            default -> throw new IllegalArgumentException("Unknown todo id strategy: " + strategy);
+        };
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return uuidSupplier.get();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
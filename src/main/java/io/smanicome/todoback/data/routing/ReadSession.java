@@ -0,0 +1,26 @@
+package io.smanicome.todoback.data.routing;
+
+/**
+ * Binds the session of the current request to its thread, for the {@link ReplicaRoutingDataSource} to keep the reads
+ * of a session on the primary after its own writes.
+ */
+public final class ReadSession {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ReadSession() {}
+
+    public static void bind(String session) {
+        CURRENT.set(session);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Session of the current thread, or null when no request is served on it.
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+}
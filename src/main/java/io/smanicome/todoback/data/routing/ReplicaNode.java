@@ -0,0 +1,54 @@
+package io.smanicome.todoback.data.routing;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+public class ReplicaNode {
+    private final String name;
+    private final DataSource dataSource;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile boolean available = true;
+
+    public ReplicaNode(String name, DataSource dataSource, String lagQuery, Duration maxLag) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Runs the lag query against the replica, which must return the replication delay in seconds.
+     * A replica lagging more than the allowed delay, or that cannot be reached, stops receiving reads.
+     */
+    public void refreshLag() {
+        if (lagQuery == null || lagQuery.isBlank()) return;
+
+        try (
+                Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(lagQuery)
+        ) {
+            final double lagInSeconds = resultSet.next() ? resultSet.getDouble(1) : Double.MAX_VALUE;
+            available = lagInSeconds * 1000 <= maxLag.toMillis();
+        } catch (SQLException e) {
+            available = false;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.smanicome.todoback.data.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas in round-robin and everything else to the primary.
+ * The reads of a session, see {@link ReadSession}, stay on the primary for the stickiness window following a write
+ * committed by that session, so that callers always read their own writes, and every read does whenever no replica
+ * is within the allowed lag. Writes made outside of a session, by scheduled jobs, keep no read on the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so that the connection is fetched once the transaction read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    private final List<ReplicaNode> replicas;
+    private final long stickinessNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> lastWriteNanosBySession = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaNode> replicas, Duration stickiness) {
+        this.replicas = List.copyOf(replicas);
+        this.stickinessNanos = stickiness.toNanos();
+
+        final Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targetDataSources.put(replica.getName(), replica.getDataSource()));
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+
+        if (wroteRecently(ReadSession.current())) return PRIMARY;
+
+        return nextAvailableReplica();
+    }
+
+    /**
+     * Also forgets the sessions whose stickiness window is over, so that only the sessions which wrote recently are kept.
+     */
+    @Scheduled(fixedDelayString = "${todo.datasource.lag-check-interval:PT5S}")
+    public void refreshReplicaLag() {
+        replicas.forEach(ReplicaNode::refreshLag);
+
+        final long now = System.nanoTime();
+        lastWriteNanosBySession.values().removeIf(lastWriteNanos -> now - lastWriteNanos >= stickinessNanos);
+    }
+
+    int trackedSessions() {
+        return lastWriteNanosBySession.size();
+    }
+
+    /**
+     * Closes the primary and replica pools, built along with this data source.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+
+    private boolean wroteRecently(String session) {
+        if (session == null) return false;
+        final Long lastWriteNanos = lastWriteNanosBySession.get(session);
+        return lastWriteNanos != null && System.nanoTime() - lastWriteNanos < stickinessNanos;
+    }
+
+    private Object nextAvailableReplica() {
+        for (int i = 0; i < replicas.size(); i++) {
+            final ReplicaNode replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.isAvailable()) return replica.getName();
+        }
+
+        return PRIMARY;
+    }
+
+    private void trackWrite() {
+        final String session = ReadSession.current();
+        if (session == null || !TransactionSynchronizationManager.isActualTransactionActive()) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWriteNanosBySession.put(session, System.nanoTime());
+                }
+            });
+        } else {
+            lastWriteNanosBySession.put(session, System.nanoTime());
+        }
+    }
+}
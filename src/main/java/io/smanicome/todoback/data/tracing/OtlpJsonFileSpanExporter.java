@@ -0,0 +1,140 @@
+package io.smanicome.todoback.data.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Appends the exported spans to a file, one OTLP/JSON {@code ExportTraceServiceRequest} per line, the format read by
+ * the file receiver of the OpenTelemetry collector.
+ */
+public class OtlpJsonFileSpanExporter implements SpanExporter {
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final OutputStream output;
+
+    public OtlpJsonFileSpanExporter(Path file) {
+        try {
+            this.output = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try (JsonGenerator json = jsonFactory.createGenerator(output, JsonEncoding.UTF8)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            writeRequest(json, spans);
+            json.flush();
+            output.write('\n');
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode flush() {
+        try {
+            output.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            output.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private static void writeRequest(JsonGenerator json, Collection<SpanData> spans) throws IOException {
+        final Map<Attributes, Map<String, List<SpanData>>> spansByResourceAndScope = spans.stream().collect(Collectors.groupingBy(
+                span -> span.getResource().getAttributes(),
+                LinkedHashMap::new,
+                Collectors.groupingBy(span -> span.getInstrumentationScopeInfo().getName(), LinkedHashMap::new, Collectors.toList())
+        ));
+
+        json.writeStartObject();
+        json.writeArrayFieldStart("resourceSpans");
+        for (Map.Entry<Attributes, Map<String, List<SpanData>>> resource : spansByResourceAndScope.entrySet()) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("resource");
+            writeAttributes(json, resource.getKey());
+            json.writeEndObject();
+            json.writeArrayFieldStart("scopeSpans");
+            for (Map.Entry<String, List<SpanData>> scope : resource.getValue().entrySet()) {
+                json.writeStartObject();
+                json.writeObjectFieldStart("scope");
+                json.writeStringField("name", scope.getKey());
+                json.writeEndObject();
+                json.writeArrayFieldStart("spans");
+                for (SpanData span : scope.getValue()) writeSpan(json, span);
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static void writeSpan(JsonGenerator json, SpanData span) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("traceId", span.getTraceId());
+        json.writeStringField("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) json.writeStringField("parentSpanId", span.getParentSpanId());
+        json.writeStringField("name", span.getName());
+        json.writeNumberField("kind", span.getKind().ordinal() + 1);
+        json.writeStringField("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+        json.writeStringField("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+        writeAttributes(json, span.getAttributes());
+        json.writeObjectFieldStart("status");
+        json.writeNumberField("code", span.getStatus().getStatusCode().ordinal());
+        if (!span.getStatus().getDescription().isEmpty()) json.writeStringField("message", span.getStatus().getDescription());
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static void writeAttributes(JsonGenerator json, Attributes attributes) throws IOException {
+        json.writeArrayFieldStart("attributes");
+        for (Map.Entry<AttributeKey<?>, Object> attribute : attributes.asMap().entrySet()) {
+            json.writeStartObject();
+            json.writeStringField("key", attribute.getKey().getKey());
+            json.writeObjectFieldStart("value");
+            switch (attribute.getKey().getType()) {
+                case BOOLEAN -> json.writeBooleanField("boolValue", (Boolean) attribute.getValue());
+                case LONG -> json.writeStringField("intValue", attribute.getValue().toString());
+                case DOUBLE -> json.writeNumberField("doubleValue", (Double) attribute.getValue());
+                default -> json.writeStringField("stringValue", attribute.getValue().toString());
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+}
@@ -0,0 +1,58 @@
+package io.smanicome.todoback.data.tracing;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements run on behalf of a single request: their count, the time spent executing them and the rows they read or
+ * wrote. Executions of each statement are counted too, so the same statement run once per row, the N+1 pattern, shows
+ * as a repeat count. A trace is confined to the thread serving the request.
+ */
+public final class SqlTrace {
+    private final Map<String, Integer> executions = new HashMap<>();
+    private int statements;
+    private long nanos;
+    private long rows;
+    private int maxRepeats;
+    private String mostRepeated;
+
+    void recordStatement(String sql, long elapsedNanos, long affectedRows) {
+        statements++;
+        nanos += elapsedNanos;
+        rows += affectedRows;
+
+        final int repeats = executions.merge(sql, 1, Integer::sum);
+        if (repeats > maxRepeats) {
+            maxRepeats = repeats;
+            mostRepeated = sql;
+        }
+    }
+
+    void recordRows(long readRows) {
+        rows += readRows;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public Duration duration() {
+        return Duration.ofNanos(nanos);
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Highest number of times a single statement ran, 0 when none ran.
+     */
+    public int maxRepeats() {
+        return maxRepeats;
+    }
+
+    public String mostRepeatedStatement() {
+        return mostRepeated;
+    }
+}
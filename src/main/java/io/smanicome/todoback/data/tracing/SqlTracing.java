@@ -0,0 +1,52 @@
+package io.smanicome.todoback.data.tracing;
+
+import java.util.function.Supplier;
+
+/**
+ * Binds the trace of the current request to its thread, for the {@link TracingDataSource} to record into.
+ */
+public final class SqlTracing {
+    private static final ThreadLocal<SqlTrace> CURRENT = new ThreadLocal<>();
+
+    private SqlTracing() {}
+
+    public static SqlTrace start() {
+        final SqlTrace trace = new SqlTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Trace of the current thread, or null when no request is traced on it.
+     */
+    public static SqlTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action in a trace of its own and returns the trace, restoring the enclosing one afterwards.
+     */
+    public static SqlTrace capture(Runnable action) {
+        return capture(() -> {
+            action.run();
+            return null;
+        }).trace();
+    }
+
+    public static <T> Captured<T> capture(Supplier<T> action) {
+        final SqlTrace enclosing = CURRENT.get();
+        final SqlTrace trace = start();
+        try {
+            return new Captured<>(action.get(), trace);
+        } finally {
+            if (enclosing == null) stop();
+            else CURRENT.set(enclosing);
+        }
+    }
+
+    public record Captured<T>(T value, SqlTrace trace) {}
+}
@@ -0,0 +1,175 @@
+package io.smanicome.todoback.data.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Records every statement executed through its connections in the {@link SqlTrace} of the current thread, and as a
+ * {@value #OBSERVATION} observation, turned into a span when tracing is enabled. Connections, statements and result
+ * sets are wrapped in JDK proxies: a statement is timed around its execution, its rows are the update counts of writes
+ * and the rows fetched from the result sets of reads.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+    public static final String OBSERVATION = "todo.sql";
+
+    private static final Set<String> EXECUTIONS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"
+    );
+
+    private final Supplier<ObservationRegistry> observationRegistry;
+
+    public TracingDataSource(DataSource targetDataSource, Supplier<ObservationRegistry> observationRegistry) {
+        super(targetDataSource);
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return traced(Connection.class, obtainTargetDataSource().getConnection(), new ConnectionHandler());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return traced(Connection.class, obtainTargetDataSource().getConnection(username, password), new ConnectionHandler());
+    }
+
+    private static <T> T traced(Class<T> type, Object target, TargetHandler handler) {
+        handler.target = target;
+        return type.cast(Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static String operationOf(String sql) {
+        final String trimmed = sql.stripLeading();
+        final int end = trimmed.indexOf(' ');
+        return (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Proxies are only equal to themselves, like the pooled connections they wrap.
+     */
+    private abstract static class TargetHandler implements InvocationHandler {
+        Object target;
+
+        @Override
+        public final Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> invokeTarget(method, args);
+            };
+        }
+
+        abstract Object invokeTarget(Method method, Object[] args) throws Throwable;
+    }
+
+    private class ConnectionHandler extends TargetHandler {
+        @Override
+        Object invokeTarget(Method method, Object[] args) throws Throwable {
+            final Object result = TracingDataSource.invoke(method, target, args);
+            return switch (method.getName()) {
+                case "createStatement" -> traced(Statement.class, result, new StatementHandler(null));
+                case "prepareStatement" -> traced(PreparedStatement.class, result, new StatementHandler((String) args[0]));
+                case "prepareCall" -> traced(CallableStatement.class, result, new StatementHandler((String) args[0]));
+                default -> result;
+            };
+        }
+    }
+
+    private class StatementHandler extends TargetHandler {
+        private final String preparedSql;
+
+        private StatementHandler(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        Object invokeTarget(Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getResultSet")) return resultSetOf(TracingDataSource.invoke(method, target, args));
+            if (!EXECUTIONS.contains(method.getName())) return TracingDataSource.invoke(method, target, args);
+
+            final String sql = args != null && args.length > 0 && args[0] instanceof String statement ? statement : preparedSql;
+            final Observation observation = Observation.createNotStarted(OBSERVATION, observationRegistry.get())
+                    .lowCardinalityKeyValue("db.operation", sql == null ? "batch" : operationOf(sql))
+                    .highCardinalityKeyValue("db.statement", String.valueOf(sql))
+                    .start();
+
+            final long startedAt = System.nanoTime();
+            try (Observation.Scope scope = observation.openScope()) {
+                final Object result = TracingDataSource.invoke(method, target, args);
+                final long rows = rowsOf(result);
+                final SqlTrace trace = SqlTracing.current();
+                if (trace != null) trace.recordStatement(String.valueOf(sql), System.nanoTime() - startedAt, rows);
+                observation.highCardinalityKeyValue("db.rows", Long.toString(rows));
+                return result instanceof ResultSet ? resultSetOf(result) : result;
+            } catch (Throwable e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+
+        private long rowsOf(Object result) throws SQLException {
+            return switch (result) {
+                case Integer count -> Math.max(count, 0);
+                case Long count -> Math.max(count, 0);
+                case int[] counts -> {
+                    long rows = 0;
+                    for (int count : counts) rows += Math.max(count, 0);
+                    yield rows;
+                }
+                case long[] counts -> {
+                    long rows = 0;
+                    for (long count : counts) rows += Math.max(count, 0);
+                    yield rows;
+                }
+                case Boolean hasResultSet when !hasResultSet -> Math.max(((Statement) target).getUpdateCount(), 0);
+                case null, default -> 0;
+            };
+        }
+
+        private Object resultSetOf(Object resultSet) {
+            if (resultSet == null) return null;
+            return traced(ResultSet.class, resultSet, new ResultSetHandler(SqlTracing.current()));
+        }
+    }
+
+    private static class ResultSetHandler extends TargetHandler {
+        private final SqlTrace trace;
+
+        private ResultSetHandler(SqlTrace trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        Object invokeTarget(Method method, Object[] args) throws Throwable {
+            final Object result = TracingDataSource.invoke(method, target, args);
+            if (trace != null && method.getName().equals("next") && (Boolean) result) trace.recordRows(1);
+            return result;
+        }
+    }
+}
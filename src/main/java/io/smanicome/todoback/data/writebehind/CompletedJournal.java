@@ -0,0 +1,98 @@
+package io.smanicome.todoback.data.writebehind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Append-only file of the completed flags not yet written to the database, one "id completed" line per toggle.
+ * Every append is forced to disk before returning.
+ */
+public class CompletedJournal implements AutoCloseable {
+    private final Path path;
+    private FileChannel channel;
+
+    public CompletedJournal(Path path) {
+        this.path = path;
+        this.channel = open(path);
+    }
+
+    private static FileChannel open(Path path) {
+        try {
+            return FileChannel.open(path, CREATE, WRITE, APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer encode(Map<UUID, Boolean> completedFlags) {
+        final StringBuilder lines = new StringBuilder(completedFlags.size() * 44);
+        completedFlags.forEach((id, completed) -> lines.append(id).append(' ').append(completed).append('\n'));
+        return ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public synchronized Map<UUID, Boolean> read() {
+        try {
+            final Map<UUID, Boolean> completedFlags = new LinkedHashMap<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.US_ASCII)) {
+                final String[] fields = line.split(" ");
+                if (fields.length == 2) completedFlags.put(UUID.fromString(fields[0]), Boolean.parseBoolean(fields[1]));
+            }
+            return completedFlags;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void append(UUID id, boolean completed) {
+        write(encode(Map.of(id, completed)));
+    }
+
+    /**
+     * Replaces the content of the journal by the given flags.
+     */
+    public synchronized void rewrite(Map<UUID, Boolean> completedFlags) {
+        try {
+            final Path compacted = path.resolveSibling(path.getFileName() + ".compacted");
+            try (FileChannel compactedChannel = FileChannel.open(compacted, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                final ByteBuffer buffer = encode(completedFlags);
+                while (buffer.hasRemaining()) compactedChannel.write(buffer);
+                compactedChannel.force(false);
+            }
+            channel.close();
+            Files.move(compacted, path, REPLACE_EXISTING, ATOMIC_MOVE);
+            channel = open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.smanicome.todoback.data.writebehind;
+
+import io.smanicome.todoback.core.model.NewTodo;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.core.repository.TodoRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Acknowledges completed flag changes once journaled and kept in memory, then writes them to the database in batches,
+ * on a fixed interval or once the flush threshold is reached. Repeated changes of a todo are coalesced, reads see the
+ * pending flags, and writes fall back to the database once the maximum number of pending changes is reached.
+ * Flags left in the journal by a previous run are written on startup, and pending ones on shutdown.
+ */
+public class WriteBehindTodoRepository implements TodoRepository {
+    private final TodoRepository delegate;
+    private final TodoChanges todoChanges;
+    private final CompletedJournal journal;
+    private final int flushThreshold;
+    private final int maxPending;
+    private final Map<UUID, Boolean> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+
+    public WriteBehindTodoRepository(TodoRepository delegate, TodoChanges todoChanges, CompletedJournal journal, int flushThreshold, int maxPending) {
+        this.delegate = delegate;
+        this.todoChanges = todoChanges;
+        this.journal = journal;
+        this.flushThreshold = flushThreshold;
+        this.maxPending = maxPending;
+
+        pending.putAll(journal.read());
+        flush();
+    }
+
+    @Override
+    public Todo create(String title, int order) {
+        return delegate.create(title, order);
+    }
+
+    @Override
+    public List<Todo> createAll(List<NewTodo> todos) {
+        return delegate.createAll(todos);
+    }
+
+    @Override
+    public Optional<Todo> findByID(UUID id) {
+        return delegate.findByID(id).map(this::withPendingCompleted);
+    }
+
+    @Override
+    public List<Todo> findAll() {
+        final List<Todo> todos = delegate.findAll();
+        if (pending.isEmpty()) return todos;
+        return todos.stream().map(this::withPendingCompleted).toList();
+    }
+
+    @Override
+    public void forEach(Consumer<Todo> consumer) {
+        delegate.forEach(todo -> consumer.accept(withPendingCompleted(todo)));
+    }
+
+    @Override
+    public Optional<Todo> update(Todo todo) {
+        flush();
+        return delegate.update(todo);
+    }
+
+    /**
+     * Buffered without checking the version, the flag commuting with any other change. The version returned is the one
+     * reads show while the flag is pending, at worst one behind when the todo is flushed meanwhile, which only makes the
+     * next update at that version conflict.
+     */
+    @Override
+    public Optional<Todo> updateCompleted(Todo todo) {
+        final boolean alreadyPending = pending.containsKey(todo.id());
+        updateCompleted(List.of(todo.id()), todo.completed());
+        return Optional.of(alreadyPending ? todo : todo.withVersion(todo.version() + 1));
+    }
+
+    @Override
+    public void updateCompleted(Collection<UUID> ids, boolean completed) {
+        if (pending.size() + ids.size() > maxPending) {
+            flush();
+            delegate.updateCompleted(ids, completed);
+            return;
+        }
+
+        journalLock.readLock().lock();
+        try {
+            for (UUID id : ids) {
+                journal.append(id, completed);
+                pending.put(id, completed);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        todoChanges.recordChange();
+
+        if (pending.size() >= flushThreshold) flush();
+    }
+
+    @Override
+    public int delete(UUID id) {
+        flush();
+        return delegate.delete(id);
+    }
+
+    @Override
+    public int deleteAllById(Collection<UUID> ids) {
+        flush();
+        return delegate.deleteAllById(ids);
+    }
+
+    @Override
+    public List<UUID> deleteByCompleted(boolean completed) {
+        flush();
+        return delegate.deleteByCompleted(completed);
+    }
+
+    @Override
+    public void deleteAll() {
+        flush();
+        delegate.deleteAll();
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public int countByTitle(String title) {
+        return delegate.countByTitle(title);
+    }
+
+    @Override
+    public Set<String> findExistingTitles(Collection<String> titles) {
+        return delegate.findExistingTitles(titles);
+    }
+
+    @Override
+    public int countByOrder(int order) {
+        return delegate.countByOrder(order);
+    }
+
+    @Override
+    public Set<Integer> findExistingOrders(Collection<Integer> orders) {
+        return delegate.findExistingOrders(orders);
+    }
+
+    @Override
+    public int findMaxOrder() {
+        return delegate.findMaxOrder();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${todo.write-behind.flush-interval:PT0.2S}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        flushLock.lock();
+        try {
+            final Map<UUID, Boolean> flushed = Map.copyOf(pending);
+            final List<UUID> completedIds = new ArrayList<>();
+            final List<UUID> uncompletedIds = new ArrayList<>();
+            flushed.forEach((id, completed) -> (completed ? completedIds : uncompletedIds).add(id));
+
+            if (!completedIds.isEmpty()) delegate.updateCompleted(completedIds, true);
+            if (!uncompletedIds.isEmpty()) delegate.updateCompleted(uncompletedIds, false);
+
+            flushed.forEach((id, completed) -> pending.remove(id, completed));
+
+            journalLock.writeLock().lock();
+            try {
+                journal.rewrite(Map.copyOf(pending));
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        journal.close();
+    }
+
+    /**
+     * A todo with a pending flag is shown at the version its flush will give it.
+     */
+    private Todo withPendingCompleted(Todo todo) {
+        final Boolean completed = pending.get(todo.id());
+        return completed == null ? todo : new Todo(todo.id(), todo.title(), todo.order(), completed, todo.version() + 1);
+    }
+}
@@ -0,0 +1,65 @@
+package io.smanicome.todoback.web;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smanicome.todoback.config.RateLimitProperties;
+import io.smanicome.todoback.web.client.ClientResolver;
+import io.smanicome.todoback.web.limit.AdaptiveConcurrencyLimiter;
+import io.smanicome.todoback.web.limit.RateLimitInterceptor;
+import io.smanicome.todoback.web.limit.TokenBucketTable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "todo.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfiguration implements WebMvcConfigurer {
+    private final RateLimitProperties properties;
+    private final ClientResolver clientResolver;
+    private final ApplicationAvailability availability;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitConfiguration(
+            RateLimitProperties properties,
+            ClientResolver clientResolver,
+            ApplicationAvailability availability,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.clientResolver = clientResolver;
+        this.availability = availability;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @Lazy(false)
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                properties.latencyThreshold(),
+                properties.minConcurrency(),
+                properties.maxConcurrency()
+        );
+        Gauge.builder("todo.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("todo.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        return limiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(
+                clientResolver,
+                availability,
+                new TokenBucketTable(properties.permitsPerSecond(), properties.burst(), properties.maxClients()),
+                new TokenBucketTable(properties.listPermitsPerSecond(), properties.listBurst(), properties.maxClients()),
+                new TokenBucketTable(properties.bulkDeletePermitsPerSecond(), properties.bulkDeleteBurst(), properties.maxClients()),
+                adaptiveConcurrencyLimiter(),
+                meterRegistry
+        )).addPathPatterns("/todos", "/todos/**");
+    }
+}
@@ -0,0 +1,62 @@
+package io.smanicome.todoback.web;
+
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.service.ITodoService;
+import io.smanicome.todoback.core.service.Outcome;
+import io.smanicome.todoback.web.response.ArchivedTodoResponse;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/todos/archive")
+public class TodoArchiveController {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ITodoService todoService;
+
+    public TodoArchiveController(ITodoService todoService) {
+        this.todoService = todoService;
+    }
+
+    private static ArchivedTodoResponse convertArchivedTodoToResponse(ArchivedTodo todo) {
+        final String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .pathSegment("todos", "archive", "{id}")
+                .buildAndExpand(todo.id())
+                .toString();
+        return new ArchivedTodoResponse(todo.id(), todo.title(), todo.order(), todo.completedAt(), todo.archivedAt(), url);
+    }
+
+    /**
+     * Most recently archived first.
+     */
+    @GetMapping
+    public ResponseEntity<List<ArchivedTodoResponse>> getAll(
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "100") int size
+    ) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) return ResponseEntity.badRequest().build();
+
+        return ResponseEntity.ok(todoService.findArchived(page, size).stream()
+                .map(TodoArchiveController::convertArchivedTodoToResponse)
+                .toList());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ArchivedTodoResponse> getById(@PathVariable("id") UUID id) {
+        return ResponseEntity.of(todoService.findArchivedById(id).map(TodoArchiveController::convertArchivedTodoToResponse));
+    }
+
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<TodoResponse> restore(@PathVariable("id") UUID id) {
+        return switch (todoService.tryRestore(id)) {
+            case Outcome.Success<Todo> success -> ResponseEntity.ok(TodoController.convertTodoToTodoResponse(success.value()));
+            case Outcome.Failure<Todo> failure -> ResponseEntity.status(TodoController.statusOf(failure.reason())).build();
+        };
+    }
+}
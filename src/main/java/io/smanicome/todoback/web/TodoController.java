@@ -1,45 +1,139 @@
 package io.smanicome.todoback.web;
 
-import io.smanicome.todoback.core.exception.*;
 import io.smanicome.todoback.core.model.Todo;
 import io.smanicome.todoback.core.service.ITodoService;
+import io.smanicome.todoback.core.service.Outcome;
+import io.smanicome.todoback.web.cache.TodoListResponseCache;
+import io.smanicome.todoback.web.client.ClientResolver;
+import io.smanicome.todoback.web.idempotency.IdempotencyStore;
 import io.smanicome.todoback.web.request.*;
 import io.smanicome.todoback.web.response.TodoResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 @RestController
 @RequestMapping("/todos")
 public class TodoController {
     private final ITodoService todoService;
+    private final IdempotencyStore idempotencyStore;
+    private final ClientResolver clientResolver;
+    private final TodoListResponseCache todoListResponseCache;
+    private final int maxDeletedIds;
 
-    public TodoController(ITodoService todoService) {
+    public TodoController(
+            ITodoService todoService,
+            IdempotencyStore idempotencyStore,
+            ClientResolver clientResolver,
+            TodoListResponseCache todoListResponseCache,
+            @Value("${todo.delete.max-ids:1000}") int maxDeletedIds
+    ) {
         this.todoService = todoService;
+        this.idempotencyStore = idempotencyStore;
+        this.clientResolver = clientResolver;
+        this.todoListResponseCache = todoListResponseCache;
+        this.maxDeletedIds = maxDeletedIds;
     }
 
+    /**
+     * Appends the id to the base url rather than expanding a template, an id needing no encoding.
+     */
     private static String getUrlOfTodo(Todo todo) {
-        return ServletUriComponentsBuilder.fromCurrentContextPath()
-                .pathSegment("todos", "{id}")
-                .buildAndExpand(todo.id())
-                .toString();
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString() + "/todos/" + todo.id();
     }
 
-    private static TodoResponse convertTodoToTodoResponse(Todo todo) {
+    static TodoResponse convertTodoToTodoResponse(Todo todo) {
         final String url = getUrlOfTodo(todo);
-        return new TodoResponse(todo.id(), todo.title(), todo.order(), todo.completed(), url);
+        return new TodoResponse(todo.id(), todo.title(), todo.order(), todo.completed(), todo.version(), url);
     }
 
-    @GetMapping
-    public List<TodoResponse> getAll() {
-        return todoService.findAll().stream()
-                .map(TodoController::convertTodoToTodoResponse)
-                .toList();
+    static HttpStatus statusOf(Outcome.Reason reason) {
+        return switch (reason) {
+            case TODO_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case TITLE_ALREADY_IN_USE, ORDER_ALREADY_IN_USE, VERSION_CONFLICT -> HttpStatus.CONFLICT;
+            case INVALID_TITLE, NEGATIVE_ORDER, ORDER_TOO_HIGH -> HttpStatus.BAD_REQUEST;
+        };
+    }
+
+    private static ResponseEntity<TodoResponse> toResponse(Outcome<Todo> outcome, HttpStatus successStatus) {
+        return switch (outcome) {
+            case Outcome.Success<Todo> success -> ResponseEntity.status(successStatus).body(convertTodoToTodoResponse(success.value()));
+            case Outcome.Failure<Todo> failure -> ResponseEntity.status(statusOf(failure.reason())).build();
+        };
+    }
+
+    /**
+     * JSON unless CBOR is explicitly preferred, wildcards included.
+     */
+    private static MediaType listMediaTypeOf(String accept) {
+        if (accept == null) return MediaType.APPLICATION_JSON;
+
+        final List<MediaType> mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) continue;
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) return MediaType.APPLICATION_JSON;
+            if (mediaType.includes(MediaType.APPLICATION_CBOR)) return MediaType.APPLICATION_CBOR;
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        for (String encoding : acceptEncoding.split(",")) {
+            final String[] parameters = encoding.trim().split(";");
+            if (!parameters[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parameters.length; i++) {
+                final String parameter = parameters[i].trim().replace(" ", "");
+                if (parameter.startsWith("q=") && qualityOf(parameter.substring(2)) == 0) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A malformed quality is ignored, as if the encoding had none.
+     */
+    private static double qualityOf(String quality) {
+        try {
+            return Double.parseDouble(quality);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private ResponseEntity<byte[]> getAll(MediaType mediaType, String acceptEncoding) {
+        final String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+        final TodoListResponseCache.CachedResponse cachedResponse = todoListResponseCache.get(mediaType, baseUrl, todoService::findAll);
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cachedResponse.gzip());
+        }
+        return response.body(cachedResponse.body());
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return getAll(listMediaTypeOf(accept), acceptEncoding);
     }
 
     @GetMapping("/{id}")
@@ -47,23 +141,63 @@ public class TodoController {
         return ResponseEntity.of(todoService.findById(id).map(TodoController::convertTodoToTodoResponse));
     }
 
+    /**
+     * A key reused by another client or with another body is answered 422, and 409 while its first request is still
+     * in flight after the wait timeout.
+     */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public TodoResponse create(@RequestBody @Valid TodoCreationRequest request) throws InvalidTitleException, TitleAlreadyInUseException {
-        var todo = todoService.create(request.title());
-        return convertTodoToTodoResponse(todo);
+    public ResponseEntity<TodoResponse> create(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid TodoCreationRequest request,
+            HttpServletRequest httpRequest
+    ) {
+        if (idempotencyKey == null) return toResponse(todoService.tryCreate(request.title()), HttpStatus.CREATED);
+
+        final String fingerprint = IdempotencyStore.fingerprintOf(clientResolver.clientOf(httpRequest), request.title());
+        switch (idempotencyStore.<TodoResponse>claim(idempotencyKey, fingerprint)) {
+            case IdempotencyStore.Claim.Replayed<TodoResponse> replayed -> {
+                return ResponseEntity.status(HttpStatus.CREATED).body(replayed.response());
+            }
+            case IdempotencyStore.Claim.Mismatched<TodoResponse> mismatched -> {
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+            }
+            case IdempotencyStore.Claim.InFlight<TodoResponse> inFlight -> {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            case IdempotencyStore.Claim.Owned<TodoResponse> owned -> {}
+        }
+
+        try {
+            final ResponseEntity<TodoResponse> response = toResponse(todoService.tryCreate(request.title()), HttpStatus.CREATED);
+            if (response.getStatusCode() == HttpStatus.CREATED) idempotencyStore.complete(idempotencyKey, response.getBody());
+            return response;
+        } finally {
+            idempotencyStore.release(idempotencyKey);
+        }
     }
 
     @PutMapping("/{id}")
-    public TodoResponse update(@PathVariable("id") UUID id, @RequestBody @Valid TodoFullUpdateRequest todoFullUpdateRequest) throws OrderAlreadyInUseException, TodoNotFoundException, NegativeOrderException, InvalidTitleException, TitleAlreadyInUseException {
-        final var todo = todoService.update(id, todoFullUpdateRequest.title(), todoFullUpdateRequest.order(), todoFullUpdateRequest.completed());
-        return convertTodoToTodoResponse(todo);
+    public ResponseEntity<TodoResponse> update(@PathVariable("id") UUID id, @RequestBody @Valid TodoFullUpdateRequest todoFullUpdateRequest) {
+        final var outcome = todoService.tryUpdate(
+                id,
+                todoFullUpdateRequest.title(),
+                todoFullUpdateRequest.order(),
+                todoFullUpdateRequest.completed(),
+                todoFullUpdateRequest.version()
+        );
+        return toResponse(outcome, HttpStatus.OK);
     }
 
     @PatchMapping("/{id}")
-    public TodoResponse updatePartially(@PathVariable("id") UUID id, @RequestBody TodoPartialUpdateRequest todoPartialUpdateRequest) throws OrderAlreadyInUseException, NegativeOrderException, InvalidTitleException, TodoNotFoundException, TitleAlreadyInUseException {
-        final var todo = todoService.update(id, todoPartialUpdateRequest.title(), todoPartialUpdateRequest.order(), todoPartialUpdateRequest.completed());
-        return convertTodoToTodoResponse(todo);
+    public ResponseEntity<TodoResponse> updatePartially(@PathVariable("id") UUID id, @RequestBody TodoPartialUpdateRequest todoPartialUpdateRequest) {
+        final var outcome = todoService.tryUpdate(
+                id,
+                todoPartialUpdateRequest.title(),
+                todoPartialUpdateRequest.order(),
+                todoPartialUpdateRequest.completed(),
+                todoPartialUpdateRequest.version()
+        );
+        return toResponse(outcome, HttpStatus.OK);
     }
 
     @DeleteMapping
@@ -72,10 +206,22 @@ public class TodoController {
         todoService.deleteAll();
     }
 
+    /**
+     * The ids are deleted with a single statement, so there can be no more of them than todo.delete.max-ids.
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Void> deleteAllById(@RequestParam("ids") Set<UUID> ids) {
+        if (ids.size() > maxDeletedIds) return ResponseEntity.badRequest().build();
+        todoService.deleteAllById(ids);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable("id") UUID id) throws TodoNotFoundException {
-        todoService.deleteById(id);
+    public ResponseEntity<Void> delete(@PathVariable("id") UUID id) {
+        return switch (todoService.tryDeleteById(id)) {
+            case Outcome.Success<Void> success -> ResponseEntity.noContent().build();
+            case Outcome.Failure<Void> failure -> ResponseEntity.status(statusOf(failure.reason())).build();
+        };
     }
 
     @DeleteMapping("/completed")
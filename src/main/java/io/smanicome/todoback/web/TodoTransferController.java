@@ -0,0 +1,176 @@
+package io.smanicome.todoback.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smanicome.todoback.core.model.NewTodo;
+import io.smanicome.todoback.core.service.ConflictPolicy;
+import io.smanicome.todoback.core.service.ITodoService;
+import io.smanicome.todoback.core.service.ImportReport;
+import io.smanicome.todoback.web.response.ImportResponse;
+import io.smanicome.todoback.web.transfer.TodoLine;
+import io.smanicome.todoback.web.transfer.TodoLineCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams the todos out and in as newline-delimited JSON or CSV, without holding the whole list in memory.
+ * Imported and skipped todos are counted in the todo.import.todos metric as the import progresses.
+ */
+@RestController
+@RequestMapping("/todos")
+public class TodoTransferController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    private final ITodoService todoService;
+    private final TodoLineCodec todoLineCodec;
+    private final int chunkSize;
+    private final Counter importedCounter;
+    private final Counter skippedCounter;
+
+    public TodoTransferController(
+            ITodoService todoService,
+            TodoLineCodec todoLineCodec,
+            MeterRegistry meterRegistry,
+            @Value("${todo.import.chunk-size:1000}") int chunkSize
+    ) {
+        this.todoService = todoService;
+        this.todoLineCodec = todoLineCodec;
+        this.chunkSize = chunkSize;
+        this.importedCounter = meterRegistry.counter("todo.import.todos", "outcome", "imported");
+        this.skippedCounter = meterRegistry.counter("todo.import.todos", "outcome", "skipped");
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAsNdjson() {
+        return export(MediaType.parseMediaType(NDJSON));
+    }
+
+    @GetMapping(value = "/export", produces = CSV)
+    public ResponseEntity<StreamingResponseBody> exportAsCsv() {
+        return export(TodoLineCodec.TEXT_CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<ImportResponse> importNdjson(
+            InputStream body,
+            @RequestParam(name = "onConflict", defaultValue = "SKIP") ConflictPolicy conflictPolicy
+    ) throws IOException {
+        return importAll(MediaType.parseMediaType(NDJSON), body, conflictPolicy);
+    }
+
+    @PostMapping(value = "/import", consumes = CSV)
+    public ResponseEntity<ImportResponse> importCsv(
+            InputStream body,
+            @RequestParam(name = "onConflict", defaultValue = "SKIP") ConflictPolicy conflictPolicy
+    ) throws IOException {
+        return importAll(TodoLineCodec.TEXT_CSV, body, conflictPolicy);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(MediaType mediaType) {
+        final StreamingResponseBody body = output -> todoLineCodec.writeAll(mediaType, output, sink ->
+                todoService.exportAll(todo -> sink.accept(new TodoLine(todo.id(), todo.title(), todo.order(), todo.completed())))
+        );
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment")
+                .body(body);
+    }
+
+    private ResponseEntity<ImportResponse> importAll(MediaType mediaType, InputStream body, ConflictPolicy conflictPolicy) throws IOException {
+        final AtomicReference<ImportReport> lastProgress = new AtomicReference<>(new ImportReport(0, 0, null, 0, Duration.ZERO));
+
+        try (MappingIterator<TodoLine> lines = todoLineCodec.read(mediaType, body)) {
+            final RecordLines recordLines = new RecordLines(chunkSize);
+            final Iterator<NewTodo> todos = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return lines.hasNext();
+                }
+
+                @Override
+                public NewTodo next() {
+                    if (lines.hasNext()) recordLines.add(lines.getParser().currentLocation().getLineNr());
+                    final TodoLine line = lines.next();
+                    return new NewTodo(line.title(), line.order(), Objects.requireNonNullElse(line.completed(), false));
+                }
+            };
+
+            final ImportReport report = todoService.importAll(todos, conflictPolicy, chunkSize, progress -> {
+                final ImportReport previous = lastProgress.getAndSet(progress);
+                importedCounter.increment(progress.imported() - previous.imported());
+                skippedCounter.increment(progress.skipped() - previous.skipped());
+            });
+
+            if (report.failure() != null) {
+                skippedCounter.increment(report.skipped() - lastProgress.get().skipped());
+                return ResponseEntity.status(TodoController.statusOf(report.failure())).body(toResponse(report, recordLines));
+            }
+            return ResponseEntity.ok(toResponse(report, recordLines));
+        } catch (RuntimeException e) {
+            if (!(e instanceof RuntimeJsonMappingException) && !(e.getCause() instanceof JsonProcessingException)) throw e;
+
+            final ImportReport progress = lastProgress.get();
+            final Long failedLine = e.getCause() instanceof JsonProcessingException cause && cause.getLocation() != null
+                    ? Long.valueOf(cause.getLocation().getLineNr())
+                    : null;
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ImportResponse(
+                    progress.imported(),
+                    progress.skipped(),
+                    "MALFORMED_LINE",
+                    failedLine,
+                    progress.elapsed().toMillis(),
+                    progress.todosPerSecond()
+            ));
+        }
+    }
+
+    private static ImportResponse toResponse(ImportReport report, RecordLines recordLines) {
+        return new ImportResponse(
+                report.imported(),
+                report.skipped(),
+                report.failure() != null ? report.failure().name() : null,
+                report.failure() != null ? recordLines.lineOf(report.failedRecord()) : null,
+                report.elapsed().toMillis(),
+                report.todosPerSecond()
+        );
+    }
+
+    /**
+     * Line each of the last records read starts on, as the parser located it, so a failure is reported on its line
+     * whatever the header or the blank lines before it. An import only stops on a record of the chunk being written,
+     * so a chunk of lines is enough.
+     */
+    private static final class RecordLines {
+        private final int[] lines;
+        private long read;
+
+        private RecordLines(int size) {
+            this.lines = new int[Math.max(size, 1)];
+        }
+
+        private void add(int line) {
+            lines[(int) (read++ % lines.length)] = line;
+        }
+
+        private Long lineOf(long record) {
+            if (record < 1 || record > read || read - record >= lines.length) return null;
+            return (long) lines[(int) ((record - 1) % lines.length)];
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.smanicome.todoback.web.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.smanicome.todoback.core.model.Todo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Serializes lists of at least the threshold by chunks on the given pool, then joins the chunks in order within the
+ * array: brackets and commas in JSON, an indefinite-length array in CBOR.
+ */
+public class ParallelListSerializer {
+    private static final int CBOR_INDEFINITE_ARRAY = 0x9F;
+    private static final int CBOR_BREAK = 0xFF;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public ParallelListSerializer(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public boolean accepts(List<?> list) {
+        return list.size() >= threshold;
+    }
+
+    public byte[] serialize(ObjectMapper mapper, List<Todo> todos, String baseUrl) {
+        final boolean cbor = mapper.getFactory() instanceof CBORFactory;
+        final int chunks = Math.min(todos.size(), pool.getParallelism() * CHUNKS_PER_THREAD);
+        final List<ForkJoinTask<byte[]>> writes = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final List<Todo> chunk = todos.subList((int) ((long) todos.size() * i / chunks), (int) ((long) todos.size() * (i + 1) / chunks));
+            writes.add(pool.submit(() -> serializeElements(mapper, chunk, baseUrl, !cbor)));
+        }
+
+        final byte[][] serializedChunks = new byte[chunks][];
+        int size = 2 + (cbor ? 0 : Math.max(0, chunks - 1));
+        for (int i = 0; i < chunks; i++) {
+            serializedChunks[i] = writes.get(i).join();
+            size += serializedChunks[i].length;
+        }
+
+        final byte[] bytes = new byte[size];
+        bytes[0] = (byte) (cbor ? CBOR_INDEFINITE_ARRAY : '[');
+        int position = 1;
+        for (int i = 0; i < chunks; i++) {
+            if (i > 0 && !cbor) bytes[position++] = ',';
+            System.arraycopy(serializedChunks[i], 0, bytes, position, serializedChunks[i].length);
+            position += serializedChunks[i].length;
+        }
+        bytes[position] = (byte) (cbor ? CBOR_BREAK : ']');
+        return bytes;
+    }
+
+    private static byte[] serializeElements(ObjectMapper mapper, List<Todo> chunk, String baseUrl, boolean commaSeparated) {
+        final TodoResponseWriter writer = new TodoResponseWriter(baseUrl);
+        final ByteArrayBuilder output = new ByteArrayBuilder();
+        try (JsonGenerator generator = mapper.createGenerator(output)) {
+            if (commaSeparated) generator.setRootValueSeparator(new SerializedString(","));
+            for (Todo todo : chunk) writer.write(generator, todo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final byte[] bytes = output.toByteArray();
+        output.release();
+        return bytes;
+    }
+}
@@ -0,0 +1,142 @@
+package io.smanicome.todoback.web.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized list of todos for each format and base url, the urls of the todos depending on it.
+ * An entry is rebuilt on the first request following a change of the todos, and its gzip form on the first
+ * request accepting it. The base url comes from the request, so at most {@code todo.list-cache.max-entries} entries
+ * are kept: once full, stale entries make room and a request no entry is left for is answered without being kept.
+ * Entries are built outside the map, concurrent requests after a change each building their own. Todos are written in the shape of responses by a {@link TodoResponseWriter}, large lists by the
+ * {@link ParallelListSerializer} when there is one.
+ */
+@Component
+public class TodoListResponseCache {
+    public static final class CachedResponse {
+        private final long version;
+        private final byte[] body;
+        private volatile byte[] gzip;
+
+        private CachedResponse(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+
+        public byte[] body() {
+            return body;
+        }
+
+        public byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = compress(body);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+                gzipOutput.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+    private final TodoChanges todoChanges;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final Optional<ParallelListSerializer> parallelListSerializer;
+    private final int maxEntries;
+
+    public TodoListResponseCache(
+            TodoChanges todoChanges,
+            ObjectMapper objectMapper,
+            Optional<ParallelListSerializer> parallelListSerializer,
+            @Value("${todo.list-cache.max-entries:8}") int maxEntries
+    ) {
+        this.todoChanges = todoChanges;
+        this.maxEntries = maxEntries;
+        this.jsonMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+        this.parallelListSerializer = parallelListSerializer;
+    }
+
+    public CachedResponse get(MediaType mediaType, String baseUrl, Supplier<List<Todo>> todos) {
+        final ObjectMapper mapper = mapperFor(mediaType);
+        final String key = mediaType + " " + baseUrl;
+        final long version = todoChanges.version();
+        final CachedResponse cachedResponse = responses.get(key);
+        if (cachedResponse != null && cachedResponse.version == version) return cachedResponse;
+
+        final CachedResponse built = new CachedResponse(version, serialize(mapper, todos.get(), baseUrl));
+        if (cachedResponse == null && responses.size() >= maxEntries) {
+            responses.values().removeIf(stale -> stale.version != version);
+            if (responses.size() >= maxEntries) return built;
+        }
+        return responses.merge(key, built, (current, candidate) -> current.version >= candidate.version ? current : candidate);
+    }
+
+    int entries() {
+        return responses.size();
+    }
+
+    /**
+     * Serializes and compresses the given todos in every format without keeping them, so the paths building the
+     * entries are compiled before the first request. Returns the compressed size, for the work not to be discarded.
+     */
+    public int warmUp(List<Todo> todos, String baseUrl) {
+        return CachedResponse.compress(serialize(jsonMapper, todos, baseUrl)).length
+                + CachedResponse.compress(serialize(cborMapper, todos, baseUrl)).length;
+    }
+
+    private ObjectMapper mapperFor(MediaType mediaType) {
+        if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)) return jsonMapper;
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) return cborMapper;
+        throw new IllegalArgumentException("Unsupported media type: " + mediaType);
+    }
+
+    /**
+     * Writes the todos straight to a segmented buffer, which grows without copying what is already written.
+     */
+    private byte[] serialize(ObjectMapper mapper, List<Todo> todos, String baseUrl) {
+        if (parallelListSerializer.isPresent() && parallelListSerializer.get().accepts(todos)) {
+            return parallelListSerializer.get().serialize(mapper, todos, baseUrl);
+        }
+
+        final TodoResponseWriter writer = new TodoResponseWriter(baseUrl);
+        final ByteArrayBuilder output = new ByteArrayBuilder();
+        try (JsonGenerator generator = mapper.createGenerator(output)) {
+            generator.writeStartArray(todos, todos.size());
+            for (Todo todo : todos) writer.write(generator, todo);
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final byte[] bytes = output.toByteArray();
+        output.release();
+        return bytes;
+    }
+}
@@ -0,0 +1,93 @@
+package io.smanicome.todoback.web.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.web.response.TodoResponse;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Writes todos in the shape of {@link TodoResponse} without creating the responses nor their urls. The url of a todo
+ * is written from a buffer starting with the base url, whose end is overwritten by the id of each todo, and the id is
+ * written from that same end, or as its 16 bytes where the format has binaries, CBOR, as Jackson writes a {@link UUID}.
+ * Not thread safe, one per serialization.
+ */
+final class TodoResponseWriter {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString ORDER = new SerializedString("order");
+    private static final SerializedString COMPLETED = new SerializedString("completed");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString URL = new SerializedString("url");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int ID_LENGTH = 36;
+
+    private final char[] url;
+    private final int idOffset;
+    private final byte[] idBytes = new byte[16];
+
+    TodoResponseWriter(String baseUrl) {
+        final String prefix = baseUrl + "/todos/";
+        this.idOffset = prefix.length();
+        this.url = Arrays.copyOf(prefix.toCharArray(), idOffset + ID_LENGTH);
+    }
+
+    void write(JsonGenerator generator, Todo todo) throws IOException {
+        writeId(todo.id());
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        if (generator.canWriteBinaryNatively()) {
+            writeIdBytes(todo.id());
+            generator.writeBinary(idBytes, 0, idBytes.length);
+        } else {
+            generator.writeString(url, idOffset, ID_LENGTH);
+        }
+        generator.writeFieldName(TITLE);
+        generator.writeString(todo.title());
+        generator.writeFieldName(ORDER);
+        generator.writeNumber(todo.order());
+        generator.writeFieldName(COMPLETED);
+        generator.writeBoolean(todo.completed());
+        generator.writeFieldName(VERSION);
+        generator.writeNumber(todo.version());
+        generator.writeFieldName(URL);
+        generator.writeString(url, 0, url.length);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Same form as {@link UUID#toString()}.
+     */
+    private void writeId(UUID id) {
+        final long mostSignificantBits = id.getMostSignificantBits();
+        final long leastSignificantBits = id.getLeastSignificantBits();
+        writeHexDigits(mostSignificantBits >>> 32, 8, idOffset);
+        url[idOffset + 8] = '-';
+        writeHexDigits(mostSignificantBits >>> 16, 4, idOffset + 9);
+        url[idOffset + 13] = '-';
+        writeHexDigits(mostSignificantBits, 4, idOffset + 14);
+        url[idOffset + 18] = '-';
+        writeHexDigits(leastSignificantBits >>> 48, 4, idOffset + 19);
+        url[idOffset + 23] = '-';
+        writeHexDigits(leastSignificantBits, 12, idOffset + 24);
+    }
+
+    private void writeIdBytes(UUID id) {
+        final long mostSignificantBits = id.getMostSignificantBits();
+        final long leastSignificantBits = id.getLeastSignificantBits();
+        for (int i = 0; i < Long.BYTES; i++) {
+            idBytes[i] = (byte) (mostSignificantBits >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+            idBytes[Long.BYTES + i] = (byte) (leastSignificantBits >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+        }
+    }
+
+    private void writeHexDigits(long value, int digits, int offset) {
+        for (int i = digits - 1; i >= 0; i--) {
+            url[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
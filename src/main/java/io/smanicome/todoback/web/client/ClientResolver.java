@@ -0,0 +1,34 @@
+package io.smanicome.todoback.web.client;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Identifies the client of a request by its remote address. The client header is only trusted on requests coming
+ * from one of the trusted proxies, which forward the identity of the client they serve, as a client could otherwise
+ * take any identity it likes.
+ */
+@Component
+public class ClientResolver {
+    private final String header;
+    private final Set<String> trustedProxies;
+
+    public ClientResolver(
+            @Value("${todo.client.header:X-Client-Id}") String header,
+            @Value("${todo.client.trusted-proxies:}") Set<String> trustedProxies
+    ) {
+        this.header = header;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+    }
+
+    public String clientOf(HttpServletRequest request) {
+        final String remoteAddress = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddress)) return remoteAddress;
+
+        final String client = request.getHeader(header);
+        return client != null && !client.isBlank() ? client : remoteAddress;
+    }
+}
@@ -0,0 +1,140 @@
+package io.smanicome.todoback.web.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps the responses of requests carrying an idempotency key, so that a replayed request gets the original response
+ * without being executed again. Each key is bound to the fingerprint of the request which claimed it, its client and
+ * body, and a request with another fingerprint is refused rather than given the response of someone else. The first
+ * request claiming a key executes, concurrent ones wait for its response for a limited time and claim the key
+ * themselves if it fails. Only successful responses are kept, up to a maximum number of entries and for a limited time.
+ */
+@Component
+public class IdempotencyStore {
+    public sealed interface Claim<T> {
+        /**
+         * The caller now owns the key and must either {@link #complete} or {@link #release} it.
+         */
+        record Owned<T>() implements Claim<T> {}
+
+        record Replayed<T>(T response) implements Claim<T> {}
+
+        /**
+         * The key was claimed by a request from another client or with another body.
+         */
+        record Mismatched<T>() implements Claim<T> {}
+
+        /**
+         * The request owning the key is still in flight after the wait timeout.
+         */
+        record InFlight<T>() implements Claim<T> {}
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Object> response, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return response.isDone() && now - expiresAtNanos > 0;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long waitTimeoutNanos;
+
+    public IdempotencyStore(
+            @Value("${todo.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${todo.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${todo.idempotency.wait-timeout:PT5S}") Duration waitTimeout
+    ) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    /**
+     * Fingerprint of a request, a digest of its client and of the fields of its body.
+     */
+    public static String fingerprintOf(String client, String... fields) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(client.getBytes(StandardCharsets.UTF_8));
+            for (String field : fields) {
+                digest.update((byte) 0);
+                if (field != null) digest.update(field.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Claim<T> claim(String key, String fingerprint) {
+        final long waitDeadline = System.nanoTime() + waitTimeoutNanos;
+        while (true) {
+            final long now = System.nanoTime();
+            final Entry claimed = new Entry(fingerprint, new CompletableFuture<>(), now + ttlNanos);
+
+            final Entry entry = entries.compute(key, (k, current) -> current == null || current.isExpired(now) ? claimed : current);
+            if (entry == claimed) {
+                evictIfFull(now);
+                return new Claim.Owned<>();
+            }
+            if (!entry.fingerprint().equals(fingerprint)) return new Claim.Mismatched<>();
+
+            final Object response;
+            try {
+                response = entry.response().get(Math.max(0, waitDeadline - now), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return new Claim.InFlight<>();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Claim.InFlight<>();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            if (response != null) return new Claim.Replayed<>((T) response);
+        }
+    }
+
+    public void complete(String key, Object response) {
+        final Entry entry = entries.get(key);
+        if (entry != null) entry.response().complete(response);
+    }
+
+    /**
+     * Gives up a claimed key that was not completed, waking up the requests waiting for it.
+     */
+    public void release(String key) {
+        final Entry entry = entries.get(key);
+        if (entry == null || entry.response().isDone()) return;
+
+        entries.remove(key, entry);
+        entry.response().complete(null);
+    }
+
+    private void evictIfFull(long now) {
+        if (entries.size() <= maxEntries) return;
+
+        entries.values().removeIf(entry -> entry.isExpired(now));
+
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().response().isDone()) iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.smanicome.todoback.web.lifecycle;
+
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+
+/**
+ * Stopped first on shutdown, after the readiness state has turned to refusing traffic and before the web server
+ * stops accepting connections, it keeps serving for the given delay, time for the load balancer to see the failing
+ * readiness probe and route the new requests elsewhere.
+ */
+public class DrainDelay implements SmartLifecycle {
+    private final Duration delay;
+    private volatile boolean running;
+
+    public DrainDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
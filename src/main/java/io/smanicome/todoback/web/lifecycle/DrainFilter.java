@@ -0,0 +1,34 @@
+package io.smanicome.todoback.web.lifecycle;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Asks clients to close their connection once the instance refuses traffic, which Spring Boot publishes as soon as
+ * the shutdown starts, so the clients keeping connections alive move to the other instances while this one drains.
+ * The state is only set by an event, not before the instance first reports ready, so warmup requests keep theirs.
+ */
+public class DrainFilter extends OncePerRequestFilter {
+    private final ApplicationAvailability availability;
+
+    public DrainFilter(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (availability.getState(ReadinessState.class) == ReadinessState.REFUSING_TRAFFIC) {
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+        }
+        filterChain.doFilter(request, response);
+    }
+}
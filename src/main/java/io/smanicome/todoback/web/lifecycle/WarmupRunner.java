@@ -0,0 +1,111 @@
+package io.smanicome.todoback.web.lifecycle;
+
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.data.ConnectionPoolPrefiller;
+import io.smanicome.todoback.web.cache.TodoListResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Runs a synthetic workload before the instance reports ready, the runners completing before Spring Boot publishes
+ * ACCEPTING_TRAFFIC. The connection pools are prefilled, then each round sends the instance requests which change
+ * nothing: listing the todos in JSON and in gzipped CBOR, which also fills the list cache, reading, updating and
+ * deleting an unknown todo and creating one without title, before serializing a synthetic list in every format.
+ * The rate limit leaves these requests alone, the instance not being ready yet. The warmup stops at the first
+ * failing request, a slow start being better than none.
+ */
+public class WarmupRunner implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ApplicationContext context;
+    private final ConnectionPoolPrefiller connectionPoolPrefiller;
+    private final TodoListResponseCache listResponseCache;
+    private final int rounds;
+    private final Duration timeout;
+    private final List<Todo> syntheticTodos;
+
+    public WarmupRunner(
+            ApplicationContext context,
+            ConnectionPoolPrefiller connectionPoolPrefiller,
+            TodoListResponseCache listResponseCache,
+            int rounds,
+            Duration timeout,
+            int listSize
+    ) {
+        this.context = context;
+        this.connectionPoolPrefiller = connectionPoolPrefiller;
+        this.listResponseCache = listResponseCache;
+        this.rounds = rounds;
+        this.timeout = timeout;
+        this.syntheticTodos = IntStream.range(0, listSize)
+                .mapToObj(order -> new Todo(UUID.randomUUID(), "warmup " + order, order, order % 2 == 0))
+                .toList();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline = start + timeout.toNanos();
+        final int connections = connectionPoolPrefiller.prefill();
+        final String baseUrl = baseUrl();
+
+        int round = 0;
+        try {
+            while (round < rounds && System.nanoTime() < deadline) {
+                if (baseUrl != null) sendRequests(baseUrl);
+                listResponseCache.warmUp(syntheticTodos, baseUrl != null ? baseUrl : "http://localhost");
+                round++;
+            }
+        } catch (IOException e) {
+            LOGGER.warn("round={} warmup request failed", round, e);
+        }
+
+        LOGGER.info("connections={} rounds={} duration={}ms warmed up",
+                connections, round, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private String baseUrl() {
+        if (!(context instanceof ServletWebServerApplicationContext webContext) || webContext.getWebServer() == null) return null;
+        return "http://localhost:" + webContext.getWebServer().getPort() + webContext.getServletContext().getContextPath();
+    }
+
+    private void sendRequests(String baseUrl) throws IOException, InterruptedException {
+        final URI todos = URI.create(baseUrl + "/todos");
+        final URI unknownTodo = URI.create(baseUrl + "/todos/" + UUID.randomUUID());
+        final String json = MediaType.APPLICATION_JSON_VALUE;
+
+        send(HttpRequest.newBuilder(todos).header(HttpHeaders.ACCEPT, json));
+        send(HttpRequest.newBuilder(todos)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        send(HttpRequest.newBuilder(unknownTodo).header(HttpHeaders.ACCEPT, json));
+        send(HttpRequest.newBuilder(unknownTodo)
+                .header(HttpHeaders.CONTENT_TYPE, json)
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"title\":\"warmup\",\"completed\":true}")));
+        send(HttpRequest.newBuilder(unknownTodo).DELETE());
+        send(HttpRequest.newBuilder(todos)
+                .header(HttpHeaders.CONTENT_TYPE, json)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"\"}")));
+    }
+
+    private void send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+}
@@ -0,0 +1,70 @@
+package io.smanicome.todoback.web.limit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limits the number of requests in flight. Every second the limit is lowered by 10% while the p99 latency of the
+ * last second is above the threshold, and raised by one otherwise, between the minimum and maximum concurrency.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final int SAMPLES = 1024;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+    private final AtomicInteger sampleCount = new AtomicInteger();
+    private final long latencyThresholdNanos;
+    private final int minLimit;
+    private final int maxLimit;
+    private volatile int limit;
+
+    public AdaptiveConcurrencyLimiter(Duration latencyThreshold, int minLimit, int maxLimit) {
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        latencies.set(sampleCount.getAndIncrement() & (SAMPLES - 1), latencyNanos);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void adjustLimit() {
+        final int samples = Math.min(sampleCount.getAndSet(0), SAMPLES);
+        if (samples == 0) {
+            limit = Math.min(maxLimit, limit + 1);
+            return;
+        }
+
+        final long[] recentLatencies = new long[samples];
+        for (int i = 0; i < samples; i++) recentLatencies[i] = latencies.get(i);
+        Arrays.sort(recentLatencies);
+        final long p99 = recentLatencies[(int) Math.ceil(samples * 0.99) - 1];
+
+        limit = p99 > latencyThresholdNanos
+                ? Math.max(minLimit, (int) (limit * 0.9))
+                : Math.min(maxLimit, limit + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package io.smanicome.todoback.web.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smanicome.todoback.web.client.ClientResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rejects requests with 429 when the client ran out of its budget, and with 503 when the server is saturated.
+ * Listing and bulk deletes, being the most expensive endpoints, have their own budgets. Requests served before the
+ * instance first reports ready, which only the warmup sends, are not limited. A streamed response is dispatched again
+ * once its body is written: that dispatch keeps the permit of the first one, released when the response completes.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String STARTED_AT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".startedAt";
+
+    private final ClientResolver clientResolver;
+    private final ApplicationAvailability availability;
+    private final TokenBucketTable defaultBudget;
+    private final TokenBucketTable listBudget;
+    private final TokenBucketTable bulkDeleteBudget;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitInterceptor(
+            ClientResolver clientResolver,
+            ApplicationAvailability availability,
+            TokenBucketTable defaultBudget,
+            TokenBucketTable listBudget,
+            TokenBucketTable bulkDeleteBudget,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            MeterRegistry meterRegistry
+    ) {
+        this.clientResolver = clientResolver;
+        this.availability = availability;
+        this.defaultBudget = defaultBudget;
+        this.listBudget = listBudget;
+        this.bulkDeleteBudget = bulkDeleteBudget;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (availability.getState(ReadinessState.class) == null) return true;
+        if (request.getAttribute(STARTED_AT_ATTRIBUTE) != null) return true;
+
+        final String budget = budgetOf(request);
+        final String clientId = clientResolver.clientOf(request);
+
+        if (!budgetTable(budget).tryAcquire(clientId)) {
+            return reject(response, budget, "throttled", HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            return reject(response, budget, "shed", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        request.setAttribute(STARTED_AT_ATTRIBUTE, System.nanoTime());
+        meterRegistry.counter("todo.rate-limit.decisions", "budget", budget, "decision", "allowed").increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED_AT_ATTRIBUTE) instanceof Long startedAt) {
+            request.removeAttribute(STARTED_AT_ATTRIBUTE);
+            concurrencyLimiter.release(System.nanoTime() - startedAt);
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, String budget, String decision, HttpStatus status) {
+        meterRegistry.counter("todo.rate-limit.decisions", "budget", budget, "decision", decision).increment();
+        response.setStatus(status.value());
+        return false;
+    }
+
+    private static String budgetOf(HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        final boolean collection = path.equals("/todos") || path.equals("/todos/");
+
+        if (HttpMethod.GET.matches(request.getMethod()) && collection) return "list";
+        if (HttpMethod.DELETE.matches(request.getMethod()) && (collection || path.equals("/todos/completed"))) return "bulk-delete";
+        return "default";
+    }
+
+    private TokenBucketTable budgetTable(String budget) {
+        return switch (budget) {
+            case "list" -> listBudget;
+            case "bulk-delete" -> bulkDeleteBudget;
+            default -> defaultBudget;
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package io.smanicome.todoback.web.limit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets of each client, refilled lazily and updated with compare-and-set, so acquiring a permit never locks.
+ * Once the table holds the maximum number of clients, the idle ones, whose bucket is full again, are dropped, at most
+ * once a second. Clients beyond the maximum share one overflow bucket until room is made for them.
+ */
+public class TokenBucketTable {
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private record Bucket(double tokens, long refilledAtNanos) {}
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicReference<Bucket> overflowBucket = new AtomicReference<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final double permitsPerNano;
+    private final int burst;
+    private final int maxClients;
+    private volatile long sweptAtNanos = System.nanoTime() - SWEEP_INTERVAL_NANOS;
+
+    public TokenBucketTable(double permitsPerSecond, int burst, int maxClients) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.maxClients = maxClients;
+    }
+
+    public boolean tryAcquire(String clientId) {
+        if (!buckets.containsKey(clientId) && buckets.size() >= maxClients && !sweep()) return tryAcquireOverflow();
+
+        while (true) {
+            final long now = System.nanoTime();
+            final Bucket bucket = buckets.get(clientId);
+            final double tokens = tokensOf(bucket, now);
+
+            if (tokens < 1) return false;
+            final Bucket acquired = new Bucket(tokens - 1, now);
+            if (bucket == null ? buckets.putIfAbsent(clientId, acquired) == null : buckets.replace(clientId, bucket, acquired)) {
+                return true;
+            }
+        }
+    }
+
+    int clients() {
+        return buckets.size();
+    }
+
+    private boolean tryAcquireOverflow() {
+        while (true) {
+            final long now = System.nanoTime();
+            final Bucket bucket = overflowBucket.get();
+            final double tokens = tokensOf(bucket, now);
+
+            if (tokens < 1) return false;
+            if (overflowBucket.compareAndSet(bucket, new Bucket(tokens - 1, now))) return true;
+        }
+    }
+
+    /**
+     * Drops the idle clients, returning whether there is room for another one.
+     */
+    private boolean sweep() {
+        final long now = System.nanoTime();
+        if (now - sweptAtNanos >= SWEEP_INTERVAL_NANOS && sweepLock.tryLock()) {
+            try {
+                sweptAtNanos = now;
+                buckets.values().removeIf(bucket -> tokensOf(bucket, now) >= burst);
+            } finally {
+                sweepLock.unlock();
+            }
+        }
+        return buckets.size() < maxClients;
+    }
+
+    private double tokensOf(Bucket bucket, long now) {
+        return bucket == null ? burst : Math.min(burst, bucket.tokens() + (now - bucket.refilledAtNanos()) * permitsPerNano);
+    }
+}
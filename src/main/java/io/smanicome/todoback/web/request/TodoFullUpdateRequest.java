@@ -1,6 +1,11 @@
 package io.smanicome.todoback.web.request;
 
+import io.smanicome.todoback.core.model.Todo;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
-public record TodoFullUpdateRequest(@NotBlank String title, boolean completed, @Min(0) int order) {}
+/**
+ * With a version, the update is refused unless the todo is still at that version.
+ */
+public record TodoFullUpdateRequest(@NotBlank String title, boolean completed, @Min(0) @Max(Todo.MAX_ORDER) int order, Long version) {}
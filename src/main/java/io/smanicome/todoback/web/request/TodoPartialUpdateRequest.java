@@ -1,3 +1,6 @@
 package io.smanicome.todoback.web.request;
 
-public record TodoPartialUpdateRequest(String title, Boolean completed, Integer order) {}
+/**
+ * With a version, the update is refused unless the todo is still at that version.
+ */
+public record TodoPartialUpdateRequest(String title, Boolean completed, Integer order, Long version) {}
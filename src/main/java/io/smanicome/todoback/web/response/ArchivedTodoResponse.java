@@ -0,0 +1,7 @@
+package io.smanicome.todoback.web.response;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ArchivedTodoResponse(UUID id, String title, int order, Instant completedAt, Instant archivedAt, String url) {
+}
@@ -0,0 +1,3 @@
+package io.smanicome.todoback.web.response;
+
+public record ImportResponse(long imported, long skipped, String failure, Long failedLine, long elapsedMillis, long todosPerSecond) {}
@@ -3,5 +3,5 @@ package io.smanicome.todoback.web.response;
 import java.util.UUID;
 
 
-public record TodoResponse(UUID id, String title, int order, boolean completed, String url) {
+public record TodoResponse(UUID id, String title, int order, boolean completed, long version, String url) {
 }
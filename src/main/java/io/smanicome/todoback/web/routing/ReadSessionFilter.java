@@ -0,0 +1,52 @@
+package io.smanicome.todoback.web.routing;
+
+import io.smanicome.todoback.data.routing.ReadSession;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Binds each request to the session of its cookie, handing a new session out to clients without one, so that a client
+ * reads its own writes while the others keep reading from the replicas.
+ */
+public class ReadSessionFilter extends OncePerRequestFilter {
+    private final String cookieName;
+
+    public ReadSessionFilter(String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String session = sessionOf(request);
+        if (session == null) {
+            session = UUID.randomUUID().toString();
+            final Cookie cookie = new Cookie(cookieName, session);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+
+        ReadSession.bind(session);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadSession.unbind();
+        }
+    }
+
+    private String sessionOf(HttpServletRequest request) {
+        if (request.getCookies() == null) return null;
+        for (Cookie cookie : request.getCookies()) {
+            if (cookie.getName().equals(cookieName) && !cookie.getValue().isBlank()) return cookie.getValue();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package io.smanicome.todoback.web.tracing;
+
+import io.smanicome.todoback.data.tracing.SqlTrace;
+import io.smanicome.todoback.data.tracing.SqlTracing;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Traces the statements run by each request and reports their totals in the {@value #STATEMENTS_HEADER},
+ * {@value #ROWS_HEADER} and {@value #MAX_REPEATS_HEADER} headers, the time spent in the database as the {@code sql}
+ * metric of {@code Server-Timing}, and in a debug log line. Headers are written just before the response is
+ * committed, so statements run while the body is streamed are logged but not reported. A statement repeated at least
+ * the given number of times within a request is logged as a warning, being most likely an N+1 query.
+ */
+public class SqlTracingFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String MAX_REPEATS_HEADER = "X-Sql-Max-Repeats";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlTracingFilter.class);
+
+    private final boolean headers;
+    private final int repeatedStatementThreshold;
+
+    public SqlTracingFilter(boolean headers, int repeatedStatementThreshold) {
+        this.headers = headers;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        final SqlTrace trace = SqlTracing.start();
+        final TracedResponse tracedResponse = new TracedResponse(response, trace);
+        try {
+            filterChain.doFilter(request, headers ? tracedResponse : response);
+        } finally {
+            SqlTracing.stop();
+            if (headers) tracedResponse.writeHeaders();
+            log(request, trace);
+        }
+    }
+
+    private void log(HttpServletRequest request, SqlTrace trace) {
+        if (trace.maxRepeats() >= repeatedStatementThreshold) {
+            LOGGER.warn("method={} uri={} repeats={} statement=\"{}\"",
+                    request.getMethod(), request.getRequestURI(), trace.maxRepeats(), trace.mostRepeatedStatement());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("method={} uri={} statements={} rows={} sqlMillis={} maxRepeats={}",
+                    request.getMethod(), request.getRequestURI(), trace.statements(), trace.rows(),
+                    millisOf(trace), trace.maxRepeats());
+        }
+    }
+
+    private static String millisOf(SqlTrace trace) {
+        return String.format(Locale.ROOT, "%.3f", trace.duration().toNanos() / 1_000_000.0);
+    }
+
+    private static final class TracedResponse extends HttpServletResponseWrapper {
+        private final SqlTrace trace;
+        private boolean headersWritten;
+
+        private TracedResponse(HttpServletResponse response, SqlTrace trace) {
+            super(response);
+            this.trace = trace;
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) return;
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, Integer.toString(trace.statements()));
+            setHeader(ROWS_HEADER, Long.toString(trace.rows()));
+            setHeader(MAX_REPEATS_HEADER, Integer.toString(trace.maxRepeats()));
+            addHeader("Server-Timing", "sql;dur=" + millisOf(trace));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
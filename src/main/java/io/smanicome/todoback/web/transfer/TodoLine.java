@@ -0,0 +1,13 @@
+package io.smanicome.todoback.web.transfer;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.UUID;
+
+/**
+ * A todo as exported and imported, one per line. The id is exported for reference and ignored on import.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"id", "title", "order", "completed"})
+public record TodoLine(UUID id, String title, Integer order, Boolean completed) {}
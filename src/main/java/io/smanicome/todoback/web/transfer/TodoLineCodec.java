@@ -0,0 +1,77 @@
+package io.smanicome.todoback.web.transfer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes todo lines as newline-delimited JSON or as CSV with a header, one value at a time.
+ */
+@Component
+public class TodoLineCodec {
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    private final ObjectReader ndjsonReader;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectReader csvReader;
+    private final ObjectWriter csvWriter;
+
+    public TodoLineCodec(ObjectMapper objectMapper) {
+        this.ndjsonReader = objectMapper.readerFor(TodoLine.class);
+        this.ndjsonWriter = objectMapper.writerFor(TodoLine.class).withRootValueSeparator("\n");
+
+        final CsvMapper csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .build();
+        this.csvReader = csvMapper.readerFor(TodoLine.class).with(CsvSchema.emptySchema().withHeader());
+        this.csvWriter = csvMapper.writerFor(TodoLine.class).with(csvMapper.schemaFor(TodoLine.class).withHeader());
+    }
+
+    public MappingIterator<TodoLine> read(MediaType mediaType, InputStream input) throws IOException {
+        return readerOf(mediaType).readValues(input);
+    }
+
+    /**
+     * Writes the lines handed to the sink by the source, every line of NDJSON ending with a newline.
+     */
+    public void writeAll(MediaType mediaType, OutputStream output, Consumer<Consumer<TodoLine>> source) throws IOException {
+        final AtomicBoolean empty = new AtomicBoolean(true);
+        try (SequenceWriter writer = writerOf(mediaType).writeValues(output)) {
+            source.accept(line -> {
+                try {
+                    writer.write(line);
+                    empty.lazySet(false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            if (!empty.get() && !TEXT_CSV.isCompatibleWith(mediaType)) output.write('\n');
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ObjectReader readerOf(MediaType mediaType) {
+        return TEXT_CSV.isCompatibleWith(mediaType) ? csvReader : ndjsonReader;
+    }
+
+    private ObjectWriter writerOf(MediaType mediaType) {
+        return TEXT_CSV.isCompatibleWith(mediaType) ? csvWriter : ndjsonWriter;
+    }
+}
@@ -0,0 +1,36 @@
+-- Schema of the h2-file mode, applied on every start, see application-h2-file.properties
+CREATE TABLE IF NOT EXISTS todos (
+    id           UUID NOT NULL PRIMARY KEY,
+    title        VARCHAR(255) NOT NULL,
+    "order"      INTEGER NOT NULL,
+    completed    BOOLEAN NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE,
+    deleted_at   TIMESTAMP(6) WITH TIME ZONE,
+    version      BIGINT NOT NULL DEFAULT 0,
+    live_title   VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN title END),
+    live_order   INTEGER GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN "order" END)
+);
+
+-- Databases created before optimistic locking
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- H2 has no partial indexes: the title and order of a todo are copied to live_ columns which are null once it's a
+-- tombstone, and unique indexes ignore nulls, so a tombstone doesn't hold its title or order
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS live_title VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN title END);
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS live_order INTEGER GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN "order" END);
+DROP INDEX IF EXISTS TODOS_TITLE_IDX;
+DROP INDEX IF EXISTS TODOS_ORDER_IDX;
+CREATE UNIQUE INDEX IF NOT EXISTS TODOS_TITLE_UNIQUE_IDX ON todos (live_title);
+CREATE UNIQUE INDEX IF NOT EXISTS TODOS_ORDER_UNIQUE_IDX ON todos (live_order);
+CREATE INDEX IF NOT EXISTS TODOS_COMPLETED_AT_IDX ON todos (completed_at);
+CREATE INDEX IF NOT EXISTS TODOS_DELETED_AT_IDX ON todos (deleted_at);
+
+CREATE TABLE IF NOT EXISTS todos_archive (
+    id           UUID NOT NULL PRIMARY KEY,
+    title        VARCHAR(255) NOT NULL,
+    "order"      INTEGER NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE,
+    archived_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS TODOS_ARCHIVE_ARCHIVED_AT_IDX ON todos_archive (archived_at);
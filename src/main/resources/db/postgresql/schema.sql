@@ -0,0 +1,32 @@
+-- Schema of the postgresql mode, applied on every start, see application-postgresql.properties
+CREATE TABLE IF NOT EXISTS todos (
+    id           UUID NOT NULL PRIMARY KEY,
+    title        VARCHAR(255) NOT NULL,
+    "order"      INTEGER NOT NULL,
+    completed    BOOLEAN NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE,
+    deleted_at   TIMESTAMP(6) WITH TIME ZONE,
+    version      BIGINT NOT NULL DEFAULT 0
+);
+
+-- Databases created before optimistic locking
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Live queries only look at todos which aren't tombstones, so their indexes leave tombstones out, while the purge
+-- only looks at tombstones. Titles and orders are unique among the todos which aren't tombstones.
+DROP INDEX IF EXISTS TODOS_TITLE_IDX;
+DROP INDEX IF EXISTS TODOS_ORDER_IDX;
+CREATE UNIQUE INDEX IF NOT EXISTS TODOS_TITLE_UNIQUE_IDX ON todos (title) WHERE deleted_at IS NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS TODOS_ORDER_UNIQUE_IDX ON todos ("order") WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS TODOS_COMPLETED_AT_IDX ON todos (completed_at) WHERE deleted_at IS NULL AND completed;
+CREATE INDEX IF NOT EXISTS TODOS_DELETED_AT_IDX ON todos (deleted_at) WHERE deleted_at IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS todos_archive (
+    id           UUID NOT NULL PRIMARY KEY,
+    title        VARCHAR(255) NOT NULL,
+    "order"      INTEGER NOT NULL,
+    completed_at TIMESTAMP(6) WITH TIME ZONE,
+    archived_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS TODOS_ARCHIVE_ARCHIVED_AT_IDX ON todos_archive (archived_at);
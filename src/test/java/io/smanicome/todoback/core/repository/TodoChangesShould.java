@@ -0,0 +1,46 @@
+package io.smanicome.todoback.core.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TodoChangesShould {
+    private final TodoChanges todoChanges = new TodoChanges();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void recordChangeOutsideTransactionAtOnce() {
+        todoChanges.recordChange();
+
+        assertEquals(1, todoChanges.version());
+    }
+
+    @Test
+    void recordChangeOfTransactionOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        todoChanges.recordChange();
+
+        assertEquals(0, todoChanges.version());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, todoChanges.version());
+    }
+
+    @Test
+    void notRecordChangeOfRolledBackTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        todoChanges.recordChange();
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(0, todoChanges.version());
+    }
+}
@@ -0,0 +1,70 @@
+package io.smanicome.todoback.core.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIndexShould {
+    @Test
+    void haveZeroAsMaxWhenEmpty() {
+        final OrderIndex index = new OrderIndex();
+
+        assertEquals(0, index.max());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 63, 64, 65_535, 65_536, 1_000_000, Integer.MAX_VALUE})
+    void answerMaxAcrossPages(int order) {
+        final OrderIndex index = new OrderIndex();
+        index.add(0);
+        index.add(order);
+
+        assertEquals(order, index.max());
+        assertTrue(index.contains(order));
+    }
+
+    @Test
+    void fallBackToPreviousMaxWhenMaxIsRemoved() {
+        final OrderIndex index = new OrderIndex();
+        index.add(5);
+        index.add(70_000);
+
+        index.remove(70_000);
+
+        assertEquals(5, index.max());
+        assertFalse(index.contains(70_000));
+    }
+
+    @Test
+    void findNextFreeOrderAcrossWordsAndPages() {
+        final OrderIndex index = new OrderIndex();
+        for (int order = 0; order < 65_540; order++) index.add(order);
+        index.remove(100);
+
+        assertEquals(100, index.nextFree(0));
+        assertEquals(65_540, index.nextFree(101));
+        assertEquals(200_000, index.nextFree(200_000));
+    }
+
+    @Test
+    void ignoreNegativeOrders() {
+        final OrderIndex index = new OrderIndex();
+
+        assertFalse(index.add(-1));
+        assertFalse(index.contains(-1));
+        assertEquals(0, index.max());
+    }
+
+    @Test
+    void forgetEveryOrderWhenCleared() {
+        final OrderIndex index = new OrderIndex();
+        index.add(42);
+
+        index.clear();
+
+        assertFalse(index.contains(42));
+        assertEquals(0, index.max());
+    }
+}
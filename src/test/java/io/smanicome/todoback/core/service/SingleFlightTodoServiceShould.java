@@ -0,0 +1,115 @@
+package io.smanicome.todoback.core.service;
+
+import io.smanicome.todoback.core.model.Todo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SingleFlightTodoServiceShould {
+    @Mock
+    private TodoService todoService;
+
+    @Test
+    void shareConcurrentIdenticalReads() throws Exception {
+        final SingleFlightTodoService singleFlightTodoService = new SingleFlightTodoService(todoService, Duration.ZERO);
+        final List<Todo> todos = List.of(new Todo(UUID.randomUUID(), "test", 0, false));
+        final CountDownLatch release = new CountDownLatch(1);
+
+        when(todoService.findAll()).thenAnswer(invocation -> {
+            release.await();
+            return todos;
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<List<Todo>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) results.add(executor.submit(singleFlightTodoService::findAll));
+
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<List<Todo>> result : results) assertEquals(todos, result.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(todoService).findAll();
+        verifyNoMoreInteractions(todoService);
+    }
+
+    @Test
+    void reuseCompletedReadWithinWindow() {
+        final SingleFlightTodoService singleFlightTodoService = new SingleFlightTodoService(todoService, Duration.ofMinutes(1));
+        when(todoService.findAll()).thenReturn(List.of());
+
+        singleFlightTodoService.findAll();
+        singleFlightTodoService.findAll();
+
+        verify(todoService).findAll();
+        verifyNoMoreInteractions(todoService);
+    }
+
+    @Test
+    void notReuseCompletedReadWithoutWindow() {
+        final SingleFlightTodoService singleFlightTodoService = new SingleFlightTodoService(todoService, Duration.ZERO);
+        when(todoService.findAll()).thenReturn(List.of());
+
+        singleFlightTodoService.findAll();
+        singleFlightTodoService.findAll();
+
+        verify(todoService, times(2)).findAll();
+        verifyNoMoreInteractions(todoService);
+    }
+
+    @Test
+    void readAgainAfterAMutation() {
+        final SingleFlightTodoService singleFlightTodoService = new SingleFlightTodoService(todoService, Duration.ofMinutes(1));
+        when(todoService.findAll()).thenReturn(List.of());
+
+        singleFlightTodoService.findAll();
+        singleFlightTodoService.deleteAll();
+        singleFlightTodoService.findAll();
+
+        verify(todoService, times(2)).findAll();
+        verify(todoService).deleteAll();
+        verifyNoMoreInteractions(todoService);
+    }
+
+    @Test
+    void keepReadsOfDifferentTodosApart() {
+        final SingleFlightTodoService singleFlightTodoService = new SingleFlightTodoService(todoService, Duration.ofMinutes(1));
+        final UUID id1 = UUID.randomUUID();
+        final UUID id2 = UUID.randomUUID();
+
+        singleFlightTodoService.findById(id1);
+        singleFlightTodoService.findById(id2);
+        singleFlightTodoService.findById(id1);
+
+        verify(todoService).findById(id1);
+        verify(todoService).findById(id2);
+        verifyNoMoreInteractions(todoService);
+    }
+
+    @Test
+    void dropCompletedReadsOnceTheirWindowIsOver() throws InterruptedException {
+        final SingleFlightTodoService singleFlightTodoService = new SingleFlightTodoService(todoService, Duration.ofMillis(50));
+
+        for (int i = 0; i < 100; i++) singleFlightTodoService.findById(UUID.randomUUID());
+        assertEquals(100, singleFlightTodoService.flights());
+
+        Thread.sleep(250);
+
+        assertEquals(0, singleFlightTodoService.flights());
+    }
+}
@@ -0,0 +1,61 @@
+package io.smanicome.todoback.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TodoOrdersShould {
+    private final TodoOrders todoOrders = new TodoOrders();
+
+    @Test
+    void returnPreviousOrderOfTodo() {
+        final UUID id = UUID.randomUUID();
+
+        assertEquals(TodoOrders.NONE, todoOrders.put(id, 3));
+        assertEquals(3, todoOrders.put(id, 4));
+        assertEquals(4, todoOrders.remove(id));
+        assertEquals(TodoOrders.NONE, todoOrders.remove(id));
+    }
+
+    @Test
+    void forgetEveryTodoOnClear() {
+        final UUID id = UUID.randomUUID();
+        todoOrders.put(id, 3);
+
+        todoOrders.clear();
+
+        assertEquals(0, todoOrders.size());
+        assertEquals(TodoOrders.NONE, todoOrders.remove(id));
+    }
+
+    @Test
+    void keepSameOrdersAsAMapThroughGrowthAndRemovals() {
+        final Random random = new Random(42);
+        final Map<UUID, Integer> expected = new HashMap<>();
+        final List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) ids.add(i % 2 == 0 ? UUID.randomUUID() : new UUID(i / 100, i));
+
+        for (int operation = 0; operation < 200_000; operation++) {
+            final UUID id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(id, TodoOrders.NONE), todoOrders.remove(id));
+                expected.remove(id);
+            } else {
+                final int order = random.nextInt(Integer.MAX_VALUE);
+                assertEquals(expected.getOrDefault(id, TodoOrders.NONE), todoOrders.put(id, order));
+                expected.put(id, order);
+            }
+        }
+
+        assertEquals(expected.size(), todoOrders.size());
+        expected.forEach((id, order) -> assertEquals(order, todoOrders.remove(id)));
+        assertEquals(0, todoOrders.size());
+    }
+}
@@ -1,20 +1,26 @@
 package io.smanicome.todoback.core.service;
 
 import io.smanicome.todoback.core.exception.*;
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.NewTodo;
 import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoArchive;
 import io.smanicome.todoback.core.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InOrder;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -27,29 +33,210 @@ class TodoServiceShould {
     @Mock
     private TodoRepository todoRepository;
 
-    @InjectMocks
+    @Mock
+    private TodoArchive todoArchive;
+
+    private UniquenessRegistry uniquenessRegistry;
+
     private TodoService todoService;
 
+    @BeforeEach
+    void createService() {
+        uniquenessRegistry = new UniquenessRegistry(todoRepository);
+        todoService = new TodoService(todoRepository, todoArchive, uniquenessRegistry);
+    }
 
     @Test
     void createAndReturnTodo() throws InvalidTitleException, TitleAlreadyInUseException {
         final String title = "test";
-        final int maxOrder = 0;
+        final int maxOrder = 3;
         final Todo todo = new Todo(UUID.randomUUID(), title, maxOrder + 1, false);
 
-        when(todoRepository.getMaxOrder()).thenReturn(maxOrder);
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "other", maxOrder, false));
         when(todoRepository.create(anyString(), anyInt())).thenReturn(todo);
 
         final Todo resultingTodo = todoService.create(title);
 
         final InOrder orderVerifier = inOrder(todoRepository);
-        orderVerifier.verify(todoRepository).getMaxOrder();
+        orderVerifier.verify(todoRepository).countByTitle(title);
         orderVerifier.verify(todoRepository).create(title, maxOrder + 1);
         orderVerifier.verifyNoMoreInteractions();
 
         assertEquals(todo, resultingTodo);
     }
 
+    @Test
+    void refuseTitleReservedInRegistryWithoutQueryingDatabase() {
+        uniquenessRegistry.reserveTitle("test");
+
+        final Outcome<Todo> outcome = todoService.tryCreate("test");
+
+        assertEquals(Outcome.failure(Outcome.Reason.TITLE_ALREADY_IN_USE), outcome);
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void letDatabaseDecideOnATitleOnceItsWriteIsDone() {
+        when(todoRepository.create(anyString(), anyInt())).thenAnswer(invocation ->
+                new Todo(UUID.randomUUID(), invocation.getArgument(0), invocation.getArgument(1), false));
+
+        todoService.tryCreate("test");
+        final Outcome<Todo> recreated = todoService.tryCreate("test");
+
+        assertInstanceOf(Outcome.Success.class, recreated, "a todo deleted by another process leaves its title free");
+        verify(todoRepository, times(2)).countByTitle("test");
+    }
+
+    @Test
+    void releaseReservationsWhenCreationFails() {
+        when(todoRepository.create(anyString(), anyInt())).thenThrow(new IllegalStateException());
+
+        assertThrows(IllegalStateException.class, () -> todoService.tryCreate("test"));
+
+        assertTrue(uniquenessRegistry.reserveTitle("test"));
+        assertTrue(uniquenessRegistry.reserveOrder(1));
+        assertEquals(0, uniquenessRegistry.maxOrder(), "the order of a failed creation is forgotten");
+    }
+
+    @Test
+    void refuseTitleTheDatabaseFindsInUseOnCreation() {
+        when(todoRepository.create(anyString(), anyInt()))
+                .thenThrow(new UniquenessViolationException(Outcome.Reason.TITLE_ALREADY_IN_USE, null));
+
+        final Outcome<Todo> outcome = todoService.tryCreate("test");
+
+        assertEquals(Outcome.failure(Outcome.Reason.TITLE_ALREADY_IN_USE), outcome);
+        assertTrue(uniquenessRegistry.reserveTitle("test"));
+        assertTrue(uniquenessRegistry.reserveOrder(1));
+    }
+
+    @Test
+    void refuseOrderTheDatabaseFindsInUseOnUpdate() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 1, false);
+        when(todoRepository.findByID(todo.id())).thenReturn(Optional.of(todo));
+        when(todoRepository.update(any())).thenThrow(new UniquenessViolationException(Outcome.Reason.ORDER_ALREADY_IN_USE, null));
+
+        final Outcome<Todo> outcome = todoService.tryUpdate(todo.id(), null, 2, null, null);
+
+        assertEquals(Outcome.failure(Outcome.Reason.ORDER_ALREADY_IN_USE), outcome);
+        assertTrue(uniquenessRegistry.reserveOrder(2));
+    }
+
+    @Test
+    void insertOneByOneChunkTheDatabaseRefusesWhenSkipping() {
+        when(todoRepository.createAll(anyList())).thenAnswer(invocation -> {
+            final List<NewTodo> todos = invocation.getArgument(0);
+            if (todos.size() > 1 || todos.get(0).title().equals("b")) {
+                throw new UniquenessViolationException(Outcome.Reason.TITLE_ALREADY_IN_USE, null);
+            }
+            return todos.stream().map(todo -> new Todo(UUID.randomUUID(), todo.title(), todo.order(), todo.completed())).toList();
+        });
+
+        final ImportReport report = todoService.importAll(
+                List.of(new NewTodo("a", 1, false), new NewTodo("b", null, false), new NewTodo("c", 3, false)).iterator(),
+                ConflictPolicy.SKIP,
+                3,
+                progress -> {}
+        );
+
+        verify(todoRepository).createAll(List.of(new NewTodo("a", 1, false)));
+        verify(todoRepository).createAll(List.of(new NewTodo("c", 3, false)));
+        assertEquals(2, report.imported());
+        assertEquals(1, report.skipped());
+        assertNull(report.failure());
+        assertEquals(3, uniquenessRegistry.maxOrder(), "the next order of the refused todo is forgotten");
+        assertTrue(uniquenessRegistry.reserveTitle("b"));
+    }
+
+    @Test
+    void stopImportAtRecordTheDatabaseRefusesWhenFailing() {
+        when(todoRepository.createAll(anyList())).thenAnswer(invocation -> invocation.<List<NewTodo>>getArgument(0).stream()
+                .map(todo -> new Todo(UUID.randomUUID(), todo.title(), todo.order(), todo.completed()))
+                .toList()
+        ).thenThrow(new UniquenessViolationException(Outcome.Reason.TITLE_ALREADY_IN_USE, null));
+        when(todoRepository.findExistingTitles(any())).thenReturn(Set.of(), Set.of(), Set.of("d"));
+
+        final ImportReport report = todoService.importAll(
+                List.of(new NewTodo("a", 1, false), new NewTodo("b", 2, false), new NewTodo("c", null, false), new NewTodo("d", 4, false)).iterator(),
+                ConflictPolicy.FAIL,
+                2,
+                progress -> {}
+        );
+
+        assertEquals(2, report.imported());
+        assertEquals(Outcome.Reason.TITLE_ALREADY_IN_USE, report.failure());
+        assertEquals(4, report.failedRecord());
+        assertEquals(2, uniquenessRegistry.maxOrder(), "the next order of the chunk left out is forgotten");
+        assertTrue(uniquenessRegistry.reserveTitle("c"));
+        assertTrue(uniquenessRegistry.reserveOrder(4));
+    }
+
+    @Test
+    void takeOrderFollowingMaxOrderOfRegistry() {
+        when(todoRepository.create(anyString(), anyInt())).thenAnswer(invocation ->
+                new Todo(UUID.randomUUID(), invocation.getArgument(0), invocation.getArgument(1), false)
+        );
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "first", 1, false));
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "second", 5, false));
+
+        final Outcome<Todo> outcome = todoService.tryCreate("test");
+
+        verify(todoRepository).create("test", 6);
+        assertInstanceOf(Outcome.Success.class, outcome);
+        assertEquals(6, uniquenessRegistry.maxOrder());
+    }
+
+    @Test
+    void takeLowestFreeOrderOnceHighestOrderIsTaken() {
+        when(todoRepository.create(anyString(), anyInt())).thenAnswer(invocation ->
+                new Todo(UUID.randomUUID(), invocation.getArgument(0), invocation.getArgument(1), false)
+        );
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "first", 0, false));
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "last", Integer.MAX_VALUE, false));
+
+        final Outcome<Todo> outcome = todoService.tryCreate("test");
+
+        verify(todoRepository).create("test", 1);
+        assertInstanceOf(Outcome.Success.class, outcome);
+    }
+
+    @Test
+    void retryCreationAfterTheDatabaseMaxOrderWhenAnotherProcessTookTheNextOrder() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 9, false);
+        when(todoRepository.create("test", 1)).thenThrow(new UniquenessViolationException(Outcome.Reason.ORDER_ALREADY_IN_USE, null));
+        when(todoRepository.findMaxOrder()).thenReturn(8);
+        when(todoRepository.create("test", 9)).thenReturn(todo);
+
+        final Outcome<Todo> outcome = todoService.tryCreate("test");
+
+        assertEquals(Outcome.success(todo), outcome);
+        assertTrue(uniquenessRegistry.reserveTitle("test"));
+    }
+
+    @Test
+    void giveUpCreationAfterBoundedAttemptsWhenOrdersKeepBeingTaken() {
+        when(todoRepository.create(anyString(), anyInt())).thenThrow(new UniquenessViolationException(Outcome.Reason.ORDER_ALREADY_IN_USE, null));
+
+        final Outcome<Todo> outcome = todoService.tryCreate("test");
+
+        assertEquals(Outcome.failure(Outcome.Reason.ORDER_ALREADY_IN_USE), outcome);
+        verify(todoRepository, times(3)).create("test", 1);
+        assertEquals(0, uniquenessRegistry.maxOrder());
+    }
+
+    @Test
+    void takeFirstOrderAgainOnceAllTodosAreDeleted() {
+        when(todoRepository.create(anyString(), anyInt())).thenAnswer(invocation ->
+                new Todo(UUID.randomUUID(), invocation.getArgument(0), invocation.getArgument(1), false)
+        );
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "old", 7, true));
+
+        todoService.deleteAll();
+        todoService.tryCreate("test");
+
+        verify(todoRepository).create("test", 1);
+    }
+
     @Test
     void returnEmptyWhenRequestingUnknownTodo() {
         when(todoRepository.findByID(any())).thenReturn(Optional.empty());
@@ -94,7 +281,6 @@ class TodoServiceShould {
         return Stream.of(
                 Arguments.of(title, null, null, todo.withTitle(title)),
                 Arguments.of(null, order, null, todo.withOrder(order)),
-                Arguments.of(null, null, completed, todo.withCompleted(completed)),
                 Arguments.of(title, order, null, todo.withTitle(title).withOrder(order)),
                 Arguments.of(title, null, completed, todo.withTitle(title).withCompleted(completed)),
                 Arguments.of(null, order, completed, todo.withOrder(order).withCompleted(completed)),
@@ -104,34 +290,102 @@ class TodoServiceShould {
 
     @ParameterizedTest
     @MethodSource("updateTodoArguments")
-    void updateTodo(String title, Integer order, Boolean completed, Todo expectedTodo) throws OrderAlreadyInUseException, TodoNotFoundException, NegativeOrderException, InvalidTitleException, TitleAlreadyInUseException {
+    void updateTodo(String title, Integer order, Boolean completed, Todo expectedTodo) throws OrderAlreadyInUseException, TodoNotFoundException, NegativeOrderException, OrderTooHighException, InvalidTitleException, TitleAlreadyInUseException, TodoVersionConflictException {
         final Todo todo = new Todo(expectedTodo.id(), "test", 0, false);
 
         when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
-        when(todoRepository.update(any())).thenReturn(expectedTodo);
+        when(todoRepository.update(any())).thenReturn(Optional.of(expectedTodo));
 
-        final Todo result = todoService.update(todo.id(), title, order, completed);
+        final Todo result = todoService.update(todo.id(), title, order, completed, null);
 
         assertEquals(expectedTodo, result);
 
         final InOrder orderVerifier = inOrder(todoRepository);
         orderVerifier.verify(todoRepository).findByID(todo.id());
-        if(order != null) {
-            orderVerifier.verify(todoRepository).countByOrder(order);
+        if(title != null) {
+            orderVerifier.verify(todoRepository).countByTitle(title);
         }
         orderVerifier.verify(todoRepository).update(expectedTodo);
         orderVerifier.verifyNoMoreInteractions();
     }
 
 
+    @Test
+    void updateOnlyCompletedFlag() throws OrderAlreadyInUseException, TodoNotFoundException, NegativeOrderException, OrderTooHighException, InvalidTitleException, TitleAlreadyInUseException, TodoVersionConflictException {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        final Todo completedTodo = todo.withCompleted(true);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+        when(todoRepository.updateCompleted(completedTodo)).thenReturn(Optional.of(completedTodo.withVersion(1)));
+
+        final Todo result = todoService.update(todo.id(), null, null, true, null);
+
+        assertEquals(completedTodo.withVersion(1), result);
+
+        final InOrder orderVerifier = inOrder(todoRepository);
+        orderVerifier.verify(todoRepository).findByID(todo.id());
+        orderVerifier.verify(todoRepository).updateCompleted(completedTodo);
+        orderVerifier.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void retryCompletedFlagOverNewVersion() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        final Todo changedTodo = todo.withTitle("changed").withVersion(1);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo), Optional.of(changedTodo));
+        when(todoRepository.updateCompleted(todo.withCompleted(true))).thenReturn(Optional.empty());
+        when(todoRepository.updateCompleted(changedTodo.withCompleted(true))).thenReturn(Optional.of(changedTodo.withCompleted(true).withVersion(2)));
+
+        final Outcome<Todo> outcome = todoService.tryUpdate(todo.id(), null, null, true, null);
+
+        assertEquals(Outcome.success(changedTodo.withCompleted(true).withVersion(2)), outcome);
+        verify(todoRepository, times(2)).findByID(todo.id());
+    }
+
+    @Test
+    void giveUpRetryingCompletedFlagAfterBoundedAttempts() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+        when(todoRepository.updateCompleted(any(Todo.class))).thenReturn(Optional.empty());
+
+        final Outcome<Todo> outcome = todoService.tryUpdate(todo.id(), null, null, true, null);
+
+        assertEquals(Outcome.failure(Outcome.Reason.VERSION_CONFLICT), outcome);
+        verify(todoRepository, times(5)).updateCompleted(any(Todo.class));
+    }
+
+    @Test
+    void refuseConflictingUpdateAndReleaseReservedTitle() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        uniquenessRegistry.hold(todo);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+        when(todoRepository.update(any())).thenReturn(Optional.empty());
+
+        final Outcome<Todo> outcome = todoService.tryUpdate(todo.id(), "new title", null, true, null);
+
+        assertEquals(Outcome.failure(Outcome.Reason.VERSION_CONFLICT), outcome);
+        verify(todoRepository).update(any());
+        assertTrue(uniquenessRegistry.reserveTitle("new title"));
+    }
+
+    @Test
+    void refuseUpdateOfAnotherVersionWithoutWriting() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false, 3);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+
+        final Outcome<Todo> outcome = todoService.tryUpdate(todo.id(), null, null, true, 2L);
+
+        assertEquals(Outcome.failure(Outcome.Reason.VERSION_CONFLICT), outcome);
+        verify(todoRepository).findByID(todo.id());
+        verifyNoMoreInteractions(todoRepository);
+    }
+
     @Test
     void throwWhenUpdatingUnknownTodo() {
         final UUID id = UUID.randomUUID();
 
         assertThrows(TodoNotFoundException.class, () -> todoService.update(
                 id,
-                null, null, null
-            )
+                null, null, null, null)
         );
 
         verify(todoRepository).findByID(id);
@@ -142,41 +396,100 @@ class TodoServiceShould {
     void throwWhenUpdatingWithConflictingOrder() {
         final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
         when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
-        when(todoRepository.countByOrder(anyInt())).thenReturn(1);
+        uniquenessRegistry.reserveOrder(1);
 
         assertThrows(OrderAlreadyInUseException.class, () -> todoService.update(
                 todo.id(),
-                null, 1, null
-            )
+                null, 1, null, null)
         );
 
-        final InOrder orderVerifier = inOrder(todoRepository);
-        orderVerifier.verify(todoRepository).findByID(todo.id());
-        orderVerifier.verify(todoRepository).countByOrder(1);
-        orderVerifier.verifyNoMoreInteractions();
+        verify(todoRepository).findByID(todo.id());
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void refuseOrderTheDatabaseFindsInUseBeforeWriting() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+        when(todoRepository.countByOrder(1)).thenReturn(1);
+
+        final Outcome<Todo> outcome = todoService.tryUpdate(todo.id(), null, 1, null, null);
+
+        assertEquals(Outcome.failure(Outcome.Reason.ORDER_ALREADY_IN_USE), outcome);
+        verify(todoRepository, never()).update(any());
+        assertTrue(uniquenessRegistry.reserveOrder(1));
+    }
+
+    @Test
+    void throwWhenUpdatingWithOrderAboveMaxOrder() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+
+        assertThrows(OrderTooHighException.class, () -> todoService.update(
+                todo.id(),
+                null, Integer.MAX_VALUE, null, null)
+        );
+
+        verify(todoRepository).findByID(todo.id());
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void returnSharedFailureWhenUpdatingWithConflictingOrder() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+        uniquenessRegistry.reserveOrder(1);
+
+        final Outcome<Todo> first = todoService.tryUpdate(todo.id(), null, 1, null, null);
+        final Outcome<Todo> second = todoService.tryUpdate(todo.id(), null, 1, null, null);
+
+        assertEquals(new Outcome.Failure<Todo>(Outcome.Reason.ORDER_ALREADY_IN_USE), first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void returnFailureWhenDeletingUnknownTodo() {
+        final UUID id = UUID.randomUUID();
+        when(todoRepository.delete(id)).thenReturn(0);
+
+        final Outcome<Void> outcome = todoService.tryDeleteById(id);
+
+        assertEquals(new Outcome.Failure<Void>(Outcome.Reason.TODO_NOT_FOUND), outcome);
+        verify(todoRepository).delete(id);
+        verifyNoMoreInteractions(todoRepository);
     }
 
     @Test
     void deleteTodo() {
         final UUID id = UUID.randomUUID();
-        when(todoRepository.existsById(any())).thenReturn(true);
+        when(todoRepository.delete(any())).thenReturn(1);
 
         assertDoesNotThrow(() -> todoService.deleteById(id));
 
-        final InOrder orderVerifier = inOrder(todoRepository);
-        orderVerifier.verify(todoRepository).existsById(id);
-        orderVerifier.verify(todoRepository).delete(id);
-        orderVerifier.verifyNoMoreInteractions();
+        verify(todoRepository).delete(id);
+        verifyNoMoreInteractions(todoRepository);
     }
 
     @Test
     void throwWhenDeletingUnknownTodo() {
         final UUID id = UUID.randomUUID();
-        when(todoRepository.existsById(id)).thenReturn(false);
+        when(todoRepository.delete(id)).thenReturn(0);
 
         assertThrows(TodoNotFoundException.class, () -> todoService.deleteById(id));
 
-        verify(todoRepository).existsById(id);
+        verify(todoRepository).delete(id);
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void deleteTodosById() {
+        final List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(todoRepository.deleteAllById(ids)).thenReturn(1);
+
+        final int deleted = todoService.deleteAllById(ids);
+
+        assertEquals(1, deleted);
+        verify(todoRepository).deleteAllById(ids);
         verifyNoMoreInteractions(todoRepository);
     }
 
@@ -188,6 +501,137 @@ class TodoServiceShould {
         verifyNoMoreInteractions(todoRepository);
     }
 
+    @Test
+    void importTodosByChunksSkippingConflicts() {
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "existing", 3, false));
+        when(todoRepository.findExistingTitles(any())).thenReturn(Set.of("taken"), Set.of("first"));
+        when(todoRepository.createAll(anyList())).thenAnswer(invocation -> invocation.<List<NewTodo>>getArgument(0).stream()
+                .map(todo -> new Todo(UUID.randomUUID(), todo.title(), todo.order(), todo.completed()))
+                .toList()
+        );
+        final List<NewTodo> todos = List.of(
+                new NewTodo("first", null, false),
+                new NewTodo("taken", null, false),
+                new NewTodo("second", 10, true),
+                new NewTodo("first", null, false),
+                new NewTodo("third", null, false)
+        );
+        final List<ImportReport> progress = new ArrayList<>();
+
+        final ImportReport report = todoService.importAll(todos.iterator(), ConflictPolicy.SKIP, 3, progress::add);
+
+        verify(todoRepository).createAll(List.of(new NewTodo("first", 4, false), new NewTodo("second", 10, true)));
+        verify(todoRepository).createAll(List.of(new NewTodo("third", 11, false)));
+        assertEquals(3, report.imported());
+        assertEquals(2, report.skipped());
+        assertNull(report.failure());
+        assertEquals(List.of(2L, 3L), progress.stream().map(ImportReport::imported).toList());
+    }
+
+    @Test
+    void skipImportedOrdersInUseOrTooHigh() {
+        when(todoRepository.findExistingTitles(any())).thenReturn(Set.of());
+        when(todoRepository.findExistingOrders(List.of(2, Integer.MAX_VALUE, 3))).thenReturn(Set.of(2));
+        final List<NewTodo> todos = List.of(
+                new NewTodo("first", 2, false),
+                new NewTodo("second", Integer.MAX_VALUE, false),
+                new NewTodo("third", 3, false)
+        );
+
+        final ImportReport report = todoService.importAll(todos.iterator(), ConflictPolicy.SKIP, 3, progress -> {});
+
+        verify(todoRepository).createAll(List.of(new NewTodo("third", 3, false)));
+        assertEquals(1, report.imported());
+        assertEquals(2, report.skipped());
+        assertTrue(uniquenessRegistry.reserveOrder(3), "imported orders are only reserved while written");
+    }
+
+    @Test
+    void stopImportOnFirstConflictWhenFailing() {
+        uniquenessRegistry.reserveOrder(2);
+        when(todoRepository.findExistingTitles(any())).thenReturn(Set.of());
+        final List<NewTodo> todos = List.of(new NewTodo("first", 1, false), new NewTodo("second", 2, false));
+
+        final ImportReport report = todoService.importAll(todos.iterator(), ConflictPolicy.FAIL, 10, progress -> {});
+
+        verify(todoRepository, never()).createAll(any());
+        assertEquals(0, report.imported());
+        assertEquals(Outcome.Reason.ORDER_ALREADY_IN_USE, report.failure());
+        assertEquals(2, report.failedRecord());
+    }
+
+    @Test
+    void archiveByChunksReleasingTitlesAndOrders() {
+        final Instant completedBefore = Instant.now();
+        final Todo first = new Todo(UUID.randomUUID(), "first", 1, true);
+        final Todo second = new Todo(UUID.randomUUID(), "second", 2, true);
+        final Todo third = new Todo(UUID.randomUUID(), "third", 3, true);
+        List.of(first, second, third).forEach(uniquenessRegistry::hold);
+        when(todoArchive.archiveCompletedBefore(completedBefore, 2)).thenReturn(
+                List.of(first.id(), second.id()),
+                List.of(third.id())
+        );
+
+        final int archived = todoService.archiveCompleted(completedBefore, 2);
+
+        assertEquals(3, archived);
+        final InOrder orderVerifier = inOrder(todoRepository, todoArchive);
+        orderVerifier.verify(todoRepository).flush();
+        orderVerifier.verify(todoArchive).archiveCompletedBefore(completedBefore, 2);
+        orderVerifier.verify(todoRepository).flush();
+        orderVerifier.verify(todoArchive).archiveCompletedBefore(completedBefore, 2);
+        assertTrue(uniquenessRegistry.reserveTitle("second"));
+        assertTrue(uniquenessRegistry.reserveOrder(3));
+    }
+
+    @Test
+    void restoreArchivedTodoWithItsOrderWhenFree() {
+        final UUID id = UUID.randomUUID();
+        final Todo restored = new Todo(id, "archived", 4, true);
+        when(todoArchive.findById(id)).thenReturn(Optional.of(new ArchivedTodo(id, "archived", 4, Instant.now(), Instant.now())));
+        when(todoArchive.restore(id, 4)).thenReturn(Optional.of(restored));
+
+        final Outcome<Todo> outcome = todoService.tryRestore(id);
+
+        assertEquals(Outcome.success(restored), outcome);
+        assertTrue(uniquenessRegistry.reserveTitle("archived"), "the title is only reserved while restoring");
+        assertTrue(uniquenessRegistry.reserveOrder(4), "the order is only reserved while restoring");
+        assertEquals(4, uniquenessRegistry.maxOrder());
+    }
+
+    @Test
+    void restoreArchivedTodoWithNextOrderWhenItsOrderIsTaken() {
+        final UUID id = UUID.randomUUID();
+        uniquenessRegistry.hold(new Todo(UUID.randomUUID(), "other", 4, false));
+        when(todoRepository.countByOrder(4)).thenReturn(1);
+        when(todoArchive.findById(id)).thenReturn(Optional.of(new ArchivedTodo(id, "archived", 4, Instant.now(), Instant.now())));
+        when(todoArchive.restore(id, 5)).thenReturn(Optional.of(new Todo(id, "archived", 5, true)));
+
+        todoService.tryRestore(id);
+
+        verify(todoArchive).restore(id, 5);
+    }
+
+    @Test
+    void refuseToRestoreArchivedTodoWhoseTitleIsInUse() {
+        final UUID id = UUID.randomUUID();
+        when(todoRepository.countByTitle("archived")).thenReturn(1);
+        when(todoArchive.findById(id)).thenReturn(Optional.of(new ArchivedTodo(id, "archived", 4, Instant.now(), Instant.now())));
+
+        final Outcome<Todo> outcome = todoService.tryRestore(id);
+
+        assertEquals(Outcome.failure(Outcome.Reason.TITLE_ALREADY_IN_USE), outcome);
+        verify(todoArchive, never()).restore(any(), anyInt());
+    }
+
+    @Test
+    void returnFailureWhenRestoringUnknownTodo() {
+        final UUID id = UUID.randomUUID();
+        when(todoArchive.findById(id)).thenReturn(Optional.empty());
+
+        assertEquals(Outcome.failure(Outcome.Reason.TODO_NOT_FOUND), todoService.tryRestore(id));
+    }
+
     @Test
     void deleteAll() {
         todoService.deleteAll();
@@ -0,0 +1,199 @@
+package io.smanicome.todoback.core.service;
+
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class UniquenessRegistryShould {
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Test
+    void reserveATitleOnlyOnceUntilReleased() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+
+        assertTrue(registry.reserveTitle("test"));
+        assertFalse(registry.reserveTitle("test"));
+
+        registry.releaseTitle("test");
+
+        assertTrue(registry.reserveTitle("test"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 63, 64, 65_535, 65_536, Todo.MAX_ORDER - 1})
+    void reserveAnOrderOnlyOnceUntilReleased(int order) {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+
+        assertTrue(registry.reserveOrder(order));
+        assertFalse(registry.reserveOrder(order));
+        assertTrue(registry.reserveOrder(order ^ 1));
+
+        registry.releaseOrder(order);
+
+        assertTrue(registry.reserveOrder(order));
+    }
+
+    @Test
+    void refuseOrderAboveMaxOrder() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+
+        assertTrue(registry.reserveOrder(Todo.MAX_ORDER));
+        assertFalse(registry.reserveOrder(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void rebuildOrdersFromRepository() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 3, false);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Todo>>getArgument(0).accept(todo);
+            return null;
+        }).when(todoRepository).forEach(any());
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+
+        registry.rebuild();
+
+        assertTrue(registry.reserveTitle("test"), "titles in use are decided by the database");
+        assertTrue(registry.reserveOrder(3), "orders in use are decided by the database");
+        assertEquals(3, registry.maxOrder());
+    }
+
+    @Test
+    void holdNoTitleOfAWrittenTodo() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+
+        registry.hold(new Todo(UUID.randomUUID(), "test", 3, false));
+
+        assertTrue(registry.reserveTitle("test"));
+    }
+
+    @Test
+    void releasePreviousOrderOfARewrittenTodo() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 5, false);
+        registry.hold(todo);
+
+        registry.hold(todo.withTitle("other").withOrder(4));
+
+        assertEquals(4, registry.maxOrder());
+    }
+
+    @Test
+    void releaseOrdersOfForgottenTodos() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 3, false);
+        registry.hold(todo);
+
+        registry.forget(List.of(todo.id(), UUID.randomUUID()));
+
+        assertEquals(0, registry.maxOrder());
+    }
+
+    @Test
+    void reserveOrderFollowingHighestKnownOrder() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        registry.hold(new Todo(UUID.randomUUID(), "test", 3, false));
+        registry.learnOrder(7);
+
+        assertEquals(8, registry.reserveNextOrder());
+        assertEquals(9, registry.reserveNextOrder());
+        assertFalse(registry.reserveOrder(9));
+    }
+
+    @Test
+    void skipNextOrderReservedByAWriteInFlight() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        assertTrue(registry.reserveOrder(1));
+
+        assertEquals(2, registry.reserveNextOrder());
+    }
+
+    @Test
+    void leaveNoOrderKnownWhenSkippingANextOrderInFlight() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        registry.hold(new Todo(UUID.randomUUID(), "test", 1, false));
+        assertTrue(registry.reserveOrder(2));
+
+        assertEquals(3, registry.reserveNextOrder());
+        registry.cancelNextOrder(3);
+        registry.releaseOrder(2);
+
+        assertEquals(1, registry.maxOrder());
+        assertEquals(2, registry.reserveNextOrder());
+    }
+
+    @Test
+    void forgetNextOrderWhoseWriteFailed() {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        registry.hold(new Todo(UUID.randomUUID(), "test", 1, false));
+
+        registry.cancelNextOrder(registry.reserveNextOrder());
+
+        assertEquals(1, registry.maxOrder());
+        assertEquals(2, registry.reserveNextOrder());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {Todo.MAX_ORDER, Integer.MAX_VALUE})
+    void reserveLowestFreeOrderOnceMaxOrderIsTaken(int highestOrder) {
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        registry.hold(new Todo(UUID.randomUUID(), "first", 0, false));
+        registry.hold(new Todo(UUID.randomUUID(), "second", 1, false));
+        registry.hold(new Todo(UUID.randomUUID(), "last", highestOrder, false));
+
+        assertEquals(2, registry.reserveNextOrder());
+        assertEquals(3, registry.reserveNextOrder());
+    }
+
+    @Test
+    void grantEachValueToASingleThreadUnderContention() throws Exception {
+        final int threads = 64;
+        final int values = 10_000;
+        final UniquenessRegistry registry = new UniquenessRegistry(todoRepository);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            final List<Future<Integer>> grants = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                grants.add(executor.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int value = 0; value < values; value++) {
+                        if (registry.reserveTitle("title-" + value)) granted++;
+                        if (registry.reserveOrder(value)) granted++;
+                    }
+                    return granted;
+                }));
+            }
+
+            start.countDown();
+            int granted = 0;
+            for (Future<Integer> grant : grants) granted += grant.get(30, TimeUnit.SECONDS);
+
+            assertEquals(2 * values, granted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
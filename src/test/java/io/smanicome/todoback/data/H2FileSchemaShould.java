@@ -0,0 +1,40 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.model.Todo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starting validates the entities against db/h2/schema.sql.
+ */
+@SpringBootTest
+@ActiveProfiles("h2-file")
+class H2FileSchemaShould {
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void databaseDirectory(DynamicPropertyRegistry registry) {
+        registry.add("todo.database.directory", directory::toString);
+    }
+
+    @Autowired
+    private JpaTodoRepository todoRepository;
+
+    @Test
+    void storeTodosInTheSchema() {
+        final Todo todo = todoRepository.create("title-" + UUID.randomUUID(), 1);
+
+        assertEquals(todo, todoRepository.findByID(todo.id()).orElseThrow());
+    }
+}
@@ -0,0 +1,98 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.model.ArchivedTodo;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.data.jpa.CrudArchivedTodoRepository;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import io.smanicome.todoback.data.jpa.TodoEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the archive queries against H2, tombstones included, on todos of their own.
+ */
+@SpringBootTest(properties = "todo.soft-delete.enabled=true")
+class JpaTodoArchiveShould {
+    @Autowired
+    private JpaTodoRepository todoRepository;
+
+    @Autowired
+    private JpaTodoArchive todoArchive;
+
+    @Autowired
+    private CrudTodoRepository crudTodoRepository;
+
+    @Autowired
+    private CrudArchivedTodoRepository crudArchivedTodoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void archiveTodoWithItsCompletionInstant() {
+        final Todo todo = completedTodo();
+        final Instant completedAt = crudTodoRepository.findById(todo.id()).map(TodoEntity::getCompletedAt).orElseThrow();
+        final Instant archivedAt = Instant.now();
+
+        assertEquals(1, archive(todo, archivedAt));
+
+        final ArchivedTodo archivedTodo = todoArchive.findById(todo.id()).orElseThrow();
+        assertEquals(todo.title(), archivedTodo.title());
+        assertEquals(todo.order(), archivedTodo.order());
+        assertEquals(completedAt, archivedTodo.completedAt());
+        assertNotNull(archivedTodo.archivedAt());
+        assertTrue(todoRepository.findByID(todo.id()).isEmpty());
+    }
+
+    @Test
+    void leaveTombstonesOutOfTheArchive() {
+        final Todo todo = completedTodo();
+        todoRepository.delete(todo.id());
+
+        assertEquals(0, archive(todo, Instant.now()));
+        assertTrue(todoArchive.findById(todo.id()).isEmpty());
+    }
+
+    @Test
+    void restoreTodoCompletedAsOfNowAtItsFirstVersion() {
+        final Todo todo = completedTodo();
+        archive(todo, Instant.now());
+        final Instant restoredAfter = Instant.now();
+
+        final Todo restored = todoArchive.restore(todo.id(), todo.order()).orElseThrow();
+
+        assertEquals(new Todo(todo.id(), todo.title(), todo.order(), true), restored);
+        assertEquals(restored, todoRepository.findByID(todo.id()).orElseThrow());
+        final Instant completedAt = crudTodoRepository.findById(todo.id()).map(TodoEntity::getCompletedAt).orElseThrow();
+        assertFalse(completedAt.isBefore(restoredAfter.minusMillis(1)));
+        assertTrue(todoArchive.findById(todo.id()).isEmpty());
+        assertEquals(1, todoRepository.update(restored.withCompleted(false)).orElseThrow().version(),
+                "the version the todo is restored at is the one it's updated over");
+    }
+
+    private Todo completedTodo() {
+        final Todo todo = todoRepository.create("title-" + UUID.randomUUID(), ThreadLocalRandom.current().nextInt(1_000_000, Integer.MAX_VALUE - 1));
+        return todoRepository.updateCompleted(todo.withCompleted(true)).orElseThrow();
+    }
+
+    /**
+     * Moves the todo alone as {@link JpaTodoArchive#archiveCompletedBefore(Instant, int)} moves a chunk, so the todos
+     * of other tests stay where they are.
+     */
+    private int archive(Todo todo, Instant archivedAt) {
+        return transactionTemplate.execute(status -> {
+            final int archived = crudArchivedTodoRepository.archiveTodosByIdIn(List.of(todo.id()), archivedAt);
+            crudTodoRepository.deleteTodosByIdIn(List.of(todo.id()));
+            return archived;
+        });
+    }
+}
@@ -1,19 +1,26 @@
 package io.smanicome.todoback.data;
 
+import io.smanicome.todoback.core.model.NewTodo;
 import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
 import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import io.smanicome.todoback.data.jpa.OrderRange;
 import io.smanicome.todoback.data.jpa.TodoEntity;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,9 +30,22 @@ class JpaTodoRepositoryShould {
     @Mock
     private CrudTodoRepository crudTodoRepository;
 
-    @InjectMocks
+    @Mock
+    private TodoChanges todoChanges;
+
     private JpaTodoRepository jpaTodoRepository;
 
+    private JpaTodoRepository softDeletingTodoRepository;
+
+    private JpaTodoRepository cachingTodoRepository;
+
+    @BeforeEach
+    void createRepositories() {
+        jpaTodoRepository = new JpaTodoRepository(crudTodoRepository, todoChanges, false, false, Optional.empty());
+        softDeletingTodoRepository = new JpaTodoRepository(crudTodoRepository, todoChanges, true, false, Optional.empty());
+        cachingTodoRepository = new JpaTodoRepository(crudTodoRepository, todoChanges, false, true, Optional.empty());
+    }
+
     @Test
     void createTodo() {
         final TodoEntity entityToSave = new TodoEntity(null, "test", 0, false);
@@ -47,29 +67,33 @@ class JpaTodoRepositoryShould {
 
         assertEquals(todo, resultingTodo);
         verify(crudTodoRepository).save(entityToSave);
+        verify(todoChanges).recordChange();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void createAllTodosInOneBatch() {
+        final List<NewTodo> todos = List.of(new NewTodo("test1", 1, false), new NewTodo("test2", 2, true));
+
+        jpaTodoRepository.createAll(todos);
+
+        verify(crudTodoRepository).insertAll(List.of(
+                new TodoEntity(null, "test1", 1, false),
+                new TodoEntity(null, "test2", 2, true)
+        ));
+        verify(todoChanges).recordChange();
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
     @Test
     void returnRequestedTodoForId() {
-        final TodoEntity entity = new TodoEntity(
-                UUID.randomUUID(),
-                "test",
-                0,
-                false
-        );
-        final Todo todo = new Todo(
-                entity.getId(),
-                entity.getTitle(),
-                entity.getOrder(),
-                entity.isCompleted()
-        );
-        when(crudTodoRepository.findById(any())).thenReturn(Optional.of(entity));
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        when(crudTodoRepository.findTodoById(any())).thenReturn(Optional.of(todo));
 
-        final Optional<Todo> resultingTodo = jpaTodoRepository.findByID(entity.getId());
+        final Optional<Todo> resultingTodo = jpaTodoRepository.findByID(todo.id());
 
         assertEquals(Optional.of(todo), resultingTodo);
-        verify(crudTodoRepository).findById(entity.getId());
+        verify(crudTodoRepository).findTodoById(todo.id());
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
@@ -80,82 +104,208 @@ class JpaTodoRepositoryShould {
         final Optional<Todo> resultingTodo = jpaTodoRepository.findByID(id);
 
         assertTrue(resultingTodo.isEmpty());
-        verify(crudTodoRepository).findById(id);
+        verify(crudTodoRepository).findTodoById(id);
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
-
-
     @Test
-    void returnExistingMaxOrder() {
-        int expectedMaxOrder = 5;
-        when(crudTodoRepository.findMaxOrder()).thenReturn(Optional.of(expectedMaxOrder));
-        final int maxOrder = jpaTodoRepository.getMaxOrder();
+    void loadEntityOfRequestedTodoWhenCached() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        final TodoEntity entity = new TodoEntity(todo.id(), todo.title(), todo.order(), todo.completed());
+        when(crudTodoRepository.findById(any())).thenReturn(Optional.of(entity));
+
+        final Optional<Todo> resultingTodo = cachingTodoRepository.findByID(todo.id());
 
-        assertEquals(expectedMaxOrder, maxOrder);
-        verify(crudTodoRepository).findMaxOrder();
+        assertEquals(Optional.of(todo), resultingTodo);
+        verify(crudTodoRepository).findById(todo.id());
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
+
+
     @Test
-    void returnZeroMaxOrderWhenNoTodosAreFound() {
-        when(crudTodoRepository.findMaxOrder()).thenReturn(Optional.empty());
-        final int maxOrder = jpaTodoRepository.getMaxOrder();
+    void returnListOfAllTodos() {
+        final List<Todo> expectedTodos = List.of(
+                new Todo(UUID.randomUUID(), "test1", 0, false),
+                new Todo(UUID.randomUUID(), "test2", 1, false),
+                new Todo(UUID.randomUUID(), "test3", 2, false)
+        );
+
+        when(crudTodoRepository.findAllTodos()).thenReturn(expectedTodos);
+
+        final List<Todo> todos = jpaTodoRepository.findAll();
 
-        assertEquals(0, maxOrder);
-        verify(crudTodoRepository).findMaxOrder();
+        assertEquals(expectedTodos, todos);
+
+        verify(crudTodoRepository).findAllTodos();
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
     @Test
-    void returnListOfAllTodos() {
-        final UUID id1 = UUID.randomUUID();
-        final UUID id2 = UUID.randomUUID();
-        final UUID id3 = UUID.randomUUID();
-
-        final List<TodoEntity> entities = List.of(
-                new TodoEntity(id1, "test1", 0, false),
-                new TodoEntity(id2, "test2", 1, false),
-                new TodoEntity(id3, "test3", 2, false)
+    void streamAllTodosToConsumer() {
+        final List<Todo> expectedTodos = List.of(
+                new Todo(UUID.randomUUID(), "test1", 0, false),
+                new Todo(UUID.randomUUID(), "test2", 1, true)
         );
-        final List<Todo> expectedTodos = entities.stream()
-                .map(todoEntity -> new Todo(
-                        todoEntity.getId(),
-                        todoEntity.getTitle(),
-                        todoEntity.getOrder(),
-                        todoEntity.isCompleted()
-                    )
-                )
-                .toList();
-
-        when(crudTodoRepository.findAll()).thenReturn(entities);
+        when(crudTodoRepository.streamAllTodos()).thenReturn(expectedTodos.stream());
 
-        final List<Todo> todos = jpaTodoRepository.findAll();
+        final List<Todo> todos = new ArrayList<>();
+        jpaTodoRepository.forEach(todos::add);
 
         assertEquals(expectedTodos, todos);
+        verify(crudTodoRepository).streamAllTodos();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void returnExistingTitles() {
+        when(crudTodoRepository.findTitlesIn(List.of("test1", "test2"))).thenReturn(Set.of("test2"));
+
+        final Set<String> titles = jpaTodoRepository.findExistingTitles(List.of("test1", "test2"));
+
+        assertEquals(Set.of("test2"), titles);
+    }
+
+    @Test
+    void notQueryExistingTitlesOfNoTodo() {
+        final Set<String> titles = jpaTodoRepository.findExistingTitles(List.of());
+
+        assertTrue(titles.isEmpty());
+        verifyNoInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void returnExistingOrders() {
+        when(crudTodoRepository.findOrdersIn(List.of(1, 2))).thenReturn(Set.of(2));
+
+        final Set<Integer> orders = jpaTodoRepository.findExistingOrders(List.of(1, 2));
+
+        assertEquals(Set.of(2), orders);
+    }
+
+    @Test
+    void notQueryExistingOrdersOfNoTodo() {
+        final Set<Integer> orders = jpaTodoRepository.findExistingOrders(List.of());
+
+        assertTrue(orders.isEmpty());
+        verifyNoInteractions(crudTodoRepository);
+    }
 
-        verify(crudTodoRepository).findAll();
+    @Test
+    void returnMaxOrder() {
+        when(crudTodoRepository.findOrderRange()).thenReturn(new OrderRange(1, 7, 3));
+
+        assertEquals(7, jpaTodoRepository.findMaxOrder());
+    }
+
+    @Test
+    void updateTodoAtVersion() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 2, true, 4);
+        when(crudTodoRepository.updateAtVersion(eq(todo.id()), eq(4L), eq("test"), eq(2), eq(true), notNull())).thenReturn(1);
+
+        final Optional<Todo> result = jpaTodoRepository.update(todo);
+
+        assertEquals(Optional.of(todo.withVersion(5)), result);
+        verify(todoChanges).recordChange();
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
     @Test
-    void updateTodo() {
+    void notUpdateTodoChangedSince() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false, 4);
+        when(crudTodoRepository.updateAtVersion(todo.id(), 4L, "test", 0, false, null)).thenReturn(0);
+
+        final Optional<Todo> result = jpaTodoRepository.update(todo);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(todoChanges);
+    }
+
+    @Test
+    void mergeTodoWhenCached() {
         final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
         final TodoEntity entity = new TodoEntity(todo.id(), todo.title(), todo.order(), todo.completed());
         when(crudTodoRepository.save(any())).thenReturn(entity);
 
-        final Todo result = jpaTodoRepository.update(todo);
+        final Optional<Todo> result = cachingTodoRepository.update(todo);
 
-        assertEquals(todo, result);
+        assertEquals(Optional.of(todo), result);
         verify(crudTodoRepository).save(entity);
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
+    @Test
+    void notMergeTodoChangedSinceWhenCached() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        when(crudTodoRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(TodoEntity.class, todo.id()));
+
+        final Optional<Todo> result = cachingTodoRepository.update(todo);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(todoChanges);
+    }
+
+    @Test
+    void updateCompletedFlagAtVersion() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, true, 4);
+        when(crudTodoRepository.updateCompletedAtVersion(eq(todo.id()), eq(4L), eq(true), notNull())).thenReturn(1);
+
+        final Optional<Todo> result = jpaTodoRepository.updateCompleted(todo);
+
+        assertEquals(Optional.of(todo.withVersion(5)), result);
+        verify(todoChanges).recordChange();
+    }
+
+    @Test
+    void notUpdateCompletedFlagOfTodoChangedSince() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false, 4);
+        when(crudTodoRepository.updateCompletedAtVersion(todo.id(), 4L, false, null)).thenReturn(0);
+
+        final Optional<Todo> result = jpaTodoRepository.updateCompleted(todo);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(todoChanges);
+    }
+
+    @Test
+    void updateCompleted() {
+        final List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        jpaTodoRepository.updateCompleted(ids, true);
+
+        verify(crudTodoRepository).updateCompleted(eq(ids), eq(true), notNull());
+        verify(todoChanges).recordChange();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
     @Test
     void delete() {
         final UUID id = UUID.randomUUID();
-        jpaTodoRepository.delete(id);
-        verify(crudTodoRepository).deleteById(id);
+        when(crudTodoRepository.deleteTodoById(id)).thenReturn(1);
+
+        assertEquals(1, jpaTodoRepository.delete(id));
+        verify(crudTodoRepository).deleteTodoById(id);
+        verify(todoChanges).recordChange();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void notRecordChangeWhenDeletingUnknownTodo() {
+        final UUID id = UUID.randomUUID();
+        when(crudTodoRepository.deleteTodoById(id)).thenReturn(0);
+
+        assertEquals(0, jpaTodoRepository.delete(id));
+        verifyNoInteractions(todoChanges);
+    }
+
+    @Test
+    void deleteAllByIdInOneStatement() {
+        final List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(crudTodoRepository.deleteTodosByIdIn(ids)).thenReturn(2);
+
+        assertEquals(2, jpaTodoRepository.deleteAllById(ids));
+        verify(crudTodoRepository).deleteTodosByIdIn(ids);
+        verify(todoChanges).recordChange();
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
@@ -171,6 +321,47 @@ class JpaTodoRepositoryShould {
     void deleteAll() {
         jpaTodoRepository.deleteAll();
         verify(crudTodoRepository).deleteAll();
+        verify(todoChanges).recordChange();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void softDeleteTodo() {
+        final UUID id = UUID.randomUUID();
+        when(crudTodoRepository.softDeleteTodoById(eq(id), notNull())).thenReturn(1);
+
+        assertEquals(1, softDeletingTodoRepository.delete(id));
+        verify(todoChanges).recordChange();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void softDeleteAllByIdInOneStatement() {
+        final List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(crudTodoRepository.softDeleteTodosByIdIn(eq(ids), notNull())).thenReturn(2);
+
+        assertEquals(2, softDeletingTodoRepository.deleteAllById(ids));
+        verify(todoChanges).recordChange();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void softDeleteCompletedTodosInOneStatement() {
+        final List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(crudTodoRepository.findIdsByCompleted(true)).thenReturn(ids);
+
+        assertEquals(ids, softDeletingTodoRepository.deleteByCompleted(true));
+        verify(crudTodoRepository).softDeleteTodosByIdIn(eq(ids), notNull());
+        verify(todoChanges).recordChange();
+        verifyNoMoreInteractions(crudTodoRepository);
+    }
+
+    @Test
+    void softDeleteAllTodosInOneStatement() {
+        softDeletingTodoRepository.deleteAll();
+
+        verify(crudTodoRepository).softDeleteAllTodos(notNull());
+        verify(todoChanges).recordChange();
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
@@ -188,15 +379,18 @@ class JpaTodoRepositoryShould {
         verifyNoMoreInteractions(crudTodoRepository);
     }
 
-    @Test
-    void countByOrder() {
-        final int order = 0;
-        when(crudTodoRepository.countByOrder(order)).thenReturn(10);
+    @ParameterizedTest
+    @CsvSource({"false", "true"})
+    void existsByIdLoadingEntityWhenCached(boolean expectedResult) {
+        final UUID id = UUID.randomUUID();
+        final Optional<TodoEntity> entity = expectedResult ? Optional.of(new TodoEntity(id, "test", 0, false)) : Optional.empty();
+        when(crudTodoRepository.findById(any())).thenReturn(entity);
+
+        final boolean result = cachingTodoRepository.existsById(id);
 
-        final int result = jpaTodoRepository.countByOrder(order);
+        assertEquals(expectedResult, result);
 
-        assertEquals(10, result);
-        verify(crudTodoRepository).countByOrder(order);
+        verify(crudTodoRepository).findById(id);
         verifyNoMoreInteractions(crudTodoRepository);
     }
 }
\ No newline at end of file
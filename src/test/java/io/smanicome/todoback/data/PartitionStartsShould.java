@@ -0,0 +1,43 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the partition bounds query against a database of its own, so the todos of other tests don't shift the bounds.
+ */
+@SpringBootTest(properties = {
+        "todo.soft-delete.enabled=true",
+        "todo.parallel-list.enabled=true",
+        "todo.parallel-list.threshold=1",
+        "todo.parallel-list.read-partitions=4"
+})
+class PartitionStartsShould {
+    @Autowired
+    private JpaTodoRepository todoRepository;
+
+    @Autowired
+    private CrudTodoRepository crudTodoRepository;
+
+    @Autowired
+    private PartitionedTodoReader partitionedTodoReader;
+
+    @Test
+    void splitTodosInPartitionsOfAsManyRowsWhateverTheGapsBetweenOrders() {
+        final List<Todo> todos = IntStream.of(1, 2, 3, 4, 5, 6, 1000, 2000)
+                .mapToObj(order -> todoRepository.create("title-" + order, order))
+                .toList();
+        todoRepository.delete(todoRepository.create("tombstone", 7).id());
+
+        assertEquals(List.of(1, 3, 5, 1000), crudTodoRepository.findPartitionStarts(4));
+        assertEquals(todos, partitionedTodoReader.findAll());
+    }
+}
@@ -0,0 +1,78 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.data.jpa.CrudTodoRepository;
+import io.smanicome.todoback.data.jpa.OrderRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionedTodoReaderShould {
+    @Mock
+    private CrudTodoRepository crudTodoRepository;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private PartitionedTodoReader reader;
+
+    @BeforeEach
+    void createReader() {
+        reader = new PartitionedTodoReader(crudTodoRepository, pool, 5, 4);
+    }
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void readSmallListInOneQuery() {
+        final List<Todo> todos = List.of(todo(1), todo(2));
+        when(crudTodoRepository.findOrderRange()).thenReturn(new OrderRange(1, 2, 2));
+        when(crudTodoRepository.findAllTodos()).thenReturn(todos);
+
+        assertEquals(todos, reader.findAll());
+        verify(crudTodoRepository, never()).findTodosWithOrderBetween(anyInt(), anyInt());
+    }
+
+    @Test
+    void readLargeListByRangesOfOrdersStartingAtPartitionStartsInOrder() {
+        when(crudTodoRepository.findOrderRange()).thenReturn(new OrderRange(1, 1000, 6));
+        when(crudTodoRepository.findPartitionStarts(4)).thenReturn(List.of(1, 2, 4, 900));
+        when(crudTodoRepository.findTodosWithOrderBetween(Integer.MIN_VALUE, 1)).thenReturn(List.of(todo(1)));
+        when(crudTodoRepository.findTodosWithOrderBetween(2, 3)).thenReturn(List.of(todo(2), todo(3)));
+        when(crudTodoRepository.findTodosWithOrderBetween(4, 899)).thenReturn(List.of(todo(4)));
+        when(crudTodoRepository.findTodosWithOrderBetween(900, Integer.MAX_VALUE)).thenReturn(List.of(todo(900), todo(1000)));
+
+        assertEquals(List.of(todo(1), todo(2), todo(3), todo(4), todo(900), todo(1000)), reader.findAll());
+        verify(crudTodoRepository, never()).findAllTodos();
+    }
+
+    @Test
+    void readOnePartitionPerStart() {
+        when(crudTodoRepository.findOrderRange()).thenReturn(new OrderRange(Integer.MAX_VALUE - 1, Integer.MAX_VALUE, 5));
+        when(crudTodoRepository.findPartitionStarts(4)).thenReturn(List.of(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+        when(crudTodoRepository.findTodosWithOrderBetween(anyInt(), anyInt())).thenReturn(List.of());
+
+        reader.findAll();
+
+        verify(crudTodoRepository).findTodosWithOrderBetween(Integer.MIN_VALUE, Integer.MAX_VALUE - 1);
+        verify(crudTodoRepository).findTodosWithOrderBetween(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        verify(crudTodoRepository, times(2)).findTodosWithOrderBetween(anyInt(), anyInt());
+    }
+
+    private static Todo todo(int order) {
+        return new Todo(new UUID(0, order), "title" + order, order, false);
+    }
+}
@@ -0,0 +1,55 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.model.Todo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "todo.soft-delete.enabled=true",
+        "todo.soft-delete.retention=PT0S",
+        "todo.soft-delete.purge-interval=PT1H",
+        "todo.soft-delete.purge-batch-size=2",
+        "todo.soft-delete.purge-pause=PT0S"
+})
+class TombstonePurgerShould {
+    @Autowired
+    private JpaTodoRepository todoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TombstonePurger tombstonePurger;
+
+    @Test
+    void hideTombstonesUntilTheyArePurged() throws InterruptedException {
+        final String title = "title-" + UUID.randomUUID();
+        final List<UUID> ids = List.of(
+                todoRepository.create(title, 1).id(),
+                todoRepository.create("title-" + UUID.randomUUID(), 2).id(),
+                todoRepository.create("title-" + UUID.randomUUID(), 3).id()
+        );
+
+        assertEquals(3, todoRepository.deleteAllById(ids));
+
+        assertTrue(todoRepository.findByID(ids.get(0)).isEmpty());
+        assertEquals(0, todoRepository.countByTitle(title));
+        assertTrue(todoRepository.findAll().stream().map(Todo::id).noneMatch(ids::contains));
+        assertEquals(0, todoRepository.delete(ids.get(0)));
+        assertTrue(tombstones() >= 3);
+
+        assertTrue(tombstonePurger.purge() >= 3);
+        assertEquals(0, tombstones());
+    }
+
+    private int tombstones() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE deleted_at IS NOT NULL", Integer.class);
+    }
+}
@@ -0,0 +1,63 @@
+package io.smanicome.todoback.data;
+
+import io.smanicome.todoback.core.exception.UniquenessViolationException;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.service.Outcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes straight to the repository, as another process would, behind the checks of the service.
+ */
+@SpringBootTest(properties = "todo.soft-delete.enabled=true")
+class UniqueConstraintsShould {
+    @Autowired
+    private JpaTodoRepository todoRepository;
+
+    @Test
+    void refuseTitleInUse() {
+        final Todo todo = todoRepository.create(uniqueTitle(), uniqueOrder());
+
+        final UniquenessViolationException violation = assertThrows(
+                UniquenessViolationException.class,
+                () -> todoRepository.create(todo.title(), uniqueOrder())
+        );
+        assertEquals(Outcome.Reason.TITLE_ALREADY_IN_USE, violation.reason());
+    }
+
+    @Test
+    void refuseOrderInUse() {
+        final Todo todo = todoRepository.create(uniqueTitle(), uniqueOrder());
+        final Todo other = todoRepository.create(uniqueTitle(), uniqueOrder());
+
+        final UniquenessViolationException violation = assertThrows(
+                UniquenessViolationException.class,
+                () -> todoRepository.update(other.withOrder(todo.order()))
+        );
+        assertEquals(Outcome.Reason.ORDER_ALREADY_IN_USE, violation.reason());
+    }
+
+    @Test
+    void letTombstonesGiveTheirTitleAndOrderBack() {
+        final Todo todo = todoRepository.create(uniqueTitle(), uniqueOrder());
+        todoRepository.delete(todo.id());
+
+        final Todo recreated = todoRepository.create(todo.title(), todo.order());
+
+        assertEquals(recreated, todoRepository.findByID(recreated.id()).orElseThrow());
+    }
+
+    private static String uniqueTitle() {
+        return "title-" + UUID.randomUUID();
+    }
+
+    private static int uniqueOrder() {
+        return ThreadLocalRandom.current().nextInt(1_000_000, Integer.MAX_VALUE - 1);
+    }
+}
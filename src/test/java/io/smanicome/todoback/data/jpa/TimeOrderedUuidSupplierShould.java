@@ -0,0 +1,39 @@
+package io.smanicome.todoback.data.jpa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidSupplierShould {
+    private final TimeOrderedUuidSupplier supplier = new TimeOrderedUuidSupplier();
+
+    @Test
+    void generateVersion7Uuids() {
+        final UUID uuid = supplier.get();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void embedCurrentTimestamp() {
+        final long before = System.currentTimeMillis();
+        final UUID uuid = supplier.get();
+        final long after = System.currentTimeMillis();
+
+        final long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= after + 1);
+    }
+
+    @Test
+    void generateIncreasingUuids() {
+        UUID previous = supplier.get();
+        for (int i = 0; i < 100_000; i++) {
+            final UUID next = supplier.get();
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.smanicome.todoback.data.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaRoutingDataSourceShould {
+    private static final String LAG_QUERY = "SELECT lag_seconds FROM replication_status";
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private TransactionTemplate transactionTemplate;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate routed;
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static void createTopology(JdbcTemplate jdbcTemplate, String node) {
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", node);
+        jdbcTemplate.execute("CREATE TABLE replication_status (lag_seconds DOUBLE)");
+        jdbcTemplate.update("INSERT INTO replication_status VALUES (0)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        final DataSource primaryDataSource = h2("primary");
+        final DataSource replicaDataSource = h2("replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        createTopology(primary, "primary");
+        createTopology(replica, "replica");
+
+        routingDataSource = new ReplicaRoutingDataSource(
+                primaryDataSource,
+                List.of(new ReplicaNode("replica-0", replicaDataSource, LAG_QUERY, Duration.ofSeconds(1))),
+                Duration.ofMillis(200)
+        );
+        final DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        routed = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadSession.unbind();
+    }
+
+    private String readNode(String session) {
+        ReadSession.bind(session);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> routed.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private String readNode() {
+        return readNode(null);
+    }
+
+    private void write(String session) {
+        ReadSession.bind(session);
+        transactionTemplate.setReadOnly(false);
+        transactionTemplate.executeWithoutResult(status -> routed.update("UPDATE node SET name = name"));
+    }
+
+    @Test
+    void routeReadOnlyTransactionsToReplica() {
+        assertEquals("replica", readNode());
+    }
+
+    @Test
+    void routeWritesToPrimary() {
+        transactionTemplate.setReadOnly(false);
+        final String node = transactionTemplate.execute(status -> routed.queryForObject("SELECT name FROM node", String.class));
+
+        assertEquals("primary", node);
+    }
+
+    @Test
+    void readFromPrimaryRightAfterAWriteOfTheSameSession() throws InterruptedException {
+        write("writer");
+
+        assertEquals("primary", readNode("writer"));
+
+        Thread.sleep(250);
+        assertEquals("replica", readNode("writer"));
+    }
+
+    @Test
+    void keepReadsOfOtherSessionsOnReplicaAfterAWrite() {
+        write("writer");
+
+        assertEquals("replica", readNode("reader"));
+        assertEquals("replica", readNode());
+    }
+
+    @Test
+    void keepReadsOnReplicaAfterAWriteOutsideOfASession() {
+        write(null);
+
+        assertEquals("replica", readNode());
+        assertEquals(0, routingDataSource.trackedSessions());
+    }
+
+    @Test
+    void forgetSessionsOnceTheirStickinessIsOver() throws InterruptedException {
+        write("writer");
+        routingDataSource.refreshReplicaLag();
+        assertEquals(1, routingDataSource.trackedSessions());
+
+        Thread.sleep(250);
+        routingDataSource.refreshReplicaLag();
+
+        assertEquals(0, routingDataSource.trackedSessions());
+    }
+
+    @Test
+    void closeTheDataSourcesItRoutesTo() throws Exception {
+        final HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:pool-" + UUID.randomUUID());
+        final ReplicaRoutingDataSource closedDataSource = new ReplicaRoutingDataSource(pool, List.of(), Duration.ZERO);
+
+        closedDataSource.close();
+
+        assertTrue(pool.isClosed());
+    }
+
+    @Test
+    void fallbackToPrimaryWhenReplicaLags() {
+        replica.update("UPDATE replication_status SET lag_seconds = 10");
+        routingDataSource.refreshReplicaLag();
+
+        assertEquals("primary", readNode());
+
+        replica.update("UPDATE replication_status SET lag_seconds = 0");
+        routingDataSource.refreshReplicaLag();
+
+        assertEquals("replica", readNode());
+    }
+}
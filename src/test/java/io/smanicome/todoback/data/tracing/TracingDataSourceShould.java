@@ -0,0 +1,58 @@
+package io.smanicome.todoback.data.tracing;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingDataSourceShould {
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTable() {
+        final DriverManagerDataSource database = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(new TracingDataSource(database, () -> ObservationRegistry.NOOP));
+        jdbcTemplate.execute("CREATE TABLE TODOS (TITLE VARCHAR(255))");
+    }
+
+    @Test
+    void countStatementsAndRowsOfCurrentTrace() {
+        final SqlTrace trace = SqlTracing.capture(() -> {
+            jdbcTemplate.batchUpdate("INSERT INTO TODOS (TITLE) VALUES (?)", List.of(new Object[]{"first"}, new Object[]{"second"}));
+            jdbcTemplate.update("UPDATE TODOS SET TITLE = 'third' WHERE TITLE = 'first'");
+            jdbcTemplate.queryForList("SELECT TITLE FROM TODOS", String.class);
+        });
+
+        assertEquals(3, trace.statements());
+        assertEquals(2 + 1 + 2, trace.rows());
+        assertFalse(trace.duration().isNegative());
+    }
+
+    @Test
+    void countRepeatsOfSameStatement() {
+        final SqlTrace trace = SqlTracing.capture(() -> {
+            for (int i = 0; i < 3; i++) jdbcTemplate.queryForList("SELECT TITLE FROM TODOS WHERE TITLE = ?", String.class, "title" + i);
+            jdbcTemplate.queryForList("SELECT TITLE FROM TODOS", String.class);
+        });
+
+        assertEquals(4, trace.statements());
+        assertEquals(3, trace.maxRepeats());
+        assertEquals("SELECT TITLE FROM TODOS WHERE TITLE = ?", trace.mostRepeatedStatement());
+    }
+
+    @Test
+    void notRecordOutsideOfTrace() {
+        jdbcTemplate.update("INSERT INTO TODOS (TITLE) VALUES ('first')");
+
+        final SqlTrace trace = SqlTracing.capture(() -> {});
+
+        assertEquals(0, trace.statements());
+        assertNull(SqlTracing.current());
+    }
+}
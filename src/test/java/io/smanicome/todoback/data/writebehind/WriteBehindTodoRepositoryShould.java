@@ -0,0 +1,148 @@
+package io.smanicome.todoback.data.writebehind;
+
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.core.repository.TodoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindTodoRepositoryShould {
+    @Mock
+    private TodoRepository todoRepository;
+
+    @TempDir
+    private Path directory;
+
+    private CompletedJournal journal;
+    private WriteBehindTodoRepository writeBehindTodoRepository;
+
+    @BeforeEach
+    void setUp() {
+        journal = new CompletedJournal(directory.resolve("journal"));
+        writeBehindTodoRepository = new WriteBehindTodoRepository(todoRepository, new TodoChanges(), journal, 3, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void acknowledgeWithoutWritingToDatabase() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+
+        writeBehindTodoRepository.updateCompleted(List.of(todo.id()), true);
+
+        assertEquals(Optional.of(todo.withCompleted(true).withVersion(1)), writeBehindTodoRepository.findByID(todo.id()));
+        assertEquals(Map.of(todo.id(), true), journal.read());
+        verify(todoRepository).findByID(todo.id());
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void acknowledgeCompletedFlagAtVersionShownByReads() {
+        final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false, 2);
+        when(todoRepository.findByID(any())).thenReturn(Optional.of(todo));
+
+        final Optional<Todo> completed = writeBehindTodoRepository.updateCompleted(todo.withCompleted(true));
+        final Optional<Todo> uncompleted = writeBehindTodoRepository.updateCompleted(completed.orElseThrow().withCompleted(false));
+
+        assertEquals(Optional.of(todo.withVersion(3)), uncompleted);
+        assertEquals(uncompleted, writeBehindTodoRepository.findByID(todo.id()));
+        verify(todoRepository).findByID(todo.id());
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void coalesceTogglesOfTheSameTodo() {
+        final UUID id = UUID.randomUUID();
+
+        writeBehindTodoRepository.updateCompleted(List.of(id), true);
+        writeBehindTodoRepository.updateCompleted(List.of(id), false);
+        writeBehindTodoRepository.updateCompleted(List.of(id), true);
+        writeBehindTodoRepository.flush();
+
+        verify(todoRepository).updateCompleted(List.of(id), true);
+        verifyNoMoreInteractions(todoRepository);
+        assertTrue(journal.read().isEmpty());
+    }
+
+    @Test
+    void flushOnceThresholdIsReached() {
+        final UUID id1 = UUID.randomUUID();
+        final UUID id2 = UUID.randomUUID();
+        final UUID id3 = UUID.randomUUID();
+
+        writeBehindTodoRepository.updateCompleted(List.of(id1), true);
+        writeBehindTodoRepository.updateCompleted(List.of(id2), true);
+        verifyNoInteractions(todoRepository);
+
+        writeBehindTodoRepository.updateCompleted(List.of(id3), false);
+
+        verify(todoRepository).updateCompleted(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(id1, id2))), eq(true));
+        verify(todoRepository).updateCompleted(List.of(id3), false);
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void writeThroughWhenTooManyChangesArePending() {
+        final List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        writeBehindTodoRepository.updateCompleted(ids, true);
+
+        verify(todoRepository).updateCompleted(ids, true);
+        verifyNoMoreInteractions(todoRepository);
+    }
+
+    @Test
+    void flushBeforeDeletingCompletedTodos() {
+        final UUID id = UUID.randomUUID();
+
+        writeBehindTodoRepository.updateCompleted(List.of(id), true);
+        writeBehindTodoRepository.deleteByCompleted(true);
+
+        final var orderVerifier = inOrder(todoRepository);
+        orderVerifier.verify(todoRepository).updateCompleted(List.of(id), true);
+        orderVerifier.verify(todoRepository).deleteByCompleted(true);
+        orderVerifier.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void replayJournalOnStartup() {
+        final UUID id = UUID.randomUUID();
+        writeBehindTodoRepository.updateCompleted(List.of(id), true);
+        journal.close();
+
+        journal = new CompletedJournal(directory.resolve("journal"));
+        new WriteBehindTodoRepository(todoRepository, new TodoChanges(), journal, 3, 5);
+
+        verify(todoRepository).updateCompleted(List.of(id), true);
+        assertTrue(journal.read().isEmpty());
+    }
+
+    @Test
+    void flushOnClose() {
+        final UUID id = UUID.randomUUID();
+        writeBehindTodoRepository.updateCompleted(List.of(id), false);
+
+        writeBehindTodoRepository.close();
+
+        verify(todoRepository).updateCompleted(List.of(id), false);
+    }
+}
@@ -1,13 +1,16 @@
 package io.smanicome.todoback.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.smanicome.todoback.core.exception.TodoNotFoundException;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.core.service.Outcome;
 import io.smanicome.todoback.core.service.TodoService;
 import io.smanicome.todoback.web.request.TodoCreationRequest;
 import io.smanicome.todoback.web.request.TodoFullUpdateRequest;
 import io.smanicome.todoback.web.request.TodoPartialUpdateRequest;
 import io.smanicome.todoback.web.response.TodoResponse;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -16,21 +19,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "todo.rate-limit.enabled=true")
 @AutoConfigureMockMvc
 @DisplayName("Todos Controller")
 class TodoControllerShould {
@@ -40,17 +53,25 @@ class TodoControllerShould {
     @Autowired
     private ObjectMapper mapper;
 
+    @Autowired
+    private TodoChanges todoChanges;
+
     @MockBean
     private TodoService todosService;
 
+    @BeforeEach
+    void invalidateCachedResponses() {
+        todoChanges.recordChange();
+    }
+
     @DisplayName("should persist given todo")
     @Test
     void createTodo() throws Exception {
         final var id = UUID.randomUUID();
         final var todo = new Todo(id, "title", 1, false);
-        final var expectedResponse = new TodoResponse(id, "title", 1, false, "http://localhost/todos/" + id);
+        final var expectedResponse = new TodoResponse(id, "title", 1, false, 0, "http://localhost/todos/" + id);
 
-        when(todosService.create(any())).thenReturn(todo);
+        when(todosService.tryCreate(any())).thenReturn(Outcome.success(todo));
 
         mockMvc.perform(post("/todos")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -61,7 +82,88 @@ class TodoControllerShould {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(content().json(mapper.writeValueAsString(expectedResponse), true));
 
-        verify(todosService).create("title");
+        verify(todosService).tryCreate("title");
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should replay the original response when the idempotency key was already used")
+    @Test
+    void replayTodoCreation() throws Exception {
+        final var id = UUID.randomUUID();
+        final var todo = new Todo(id, "title", 1, false);
+        final var expectedResponse = new TodoResponse(id, "title", 1, false, 0, "http://localhost/todos/" + id);
+        final var idempotencyKey = UUID.randomUUID().toString();
+
+        when(todosService.tryCreate(any())).thenReturn(Outcome.success(todo));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/todos")
+                            .header("Idempotency-Key", idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(new TodoCreationRequest("title")))
+                    )
+                    .andExpect(status().isCreated())
+                    .andExpect(content().json(mapper.writeValueAsString(expectedResponse), true));
+        }
+
+        verify(todosService).tryCreate("title");
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should refuse an idempotency key reused with another body or by another client")
+    @Test
+    void refuseReusedIdempotencyKey() throws Exception {
+        final var id = UUID.randomUUID();
+        final var idempotencyKey = UUID.randomUUID().toString();
+
+        when(todosService.tryCreate(any())).thenReturn(Outcome.success(new Todo(id, "title", 1, false)));
+
+        mockMvc.perform(post("/todos")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoCreationRequest("title")))
+                )
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/todos")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoCreationRequest("other title")))
+                )
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/todos")
+                        .with(remoteAddress("10.0.0.3"))
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoCreationRequest("title")))
+                )
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(todosService).tryCreate("title");
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should persist given todo in cbor")
+    @Test
+    void createTodoInCbor() throws Exception {
+        final var cborMapper = new CBORMapper();
+        final var id = UUID.randomUUID();
+        final var todo = new Todo(id, "title", 1, false);
+        final var expectedResponse = new TodoResponse(id, "title", 1, false, 0, "http://localhost/todos/" + id);
+
+        when(todosService.tryCreate(any())).thenReturn(Outcome.success(todo));
+
+        final byte[] body = mockMvc.perform(post("/todos")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(new TodoCreationRequest("title")))
+                )
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(expectedResponse, cborMapper.readValue(body, TodoResponse.class));
+        verify(todosService).tryCreate("title");
         verifyNoMoreInteractions(todosService);
     }
 
@@ -100,10 +202,10 @@ class TodoControllerShould {
         );
 
         final var expectedResponse = List.of(
-                new TodoResponse(id1, "title1", 1, false, "http://localhost/todos/" + id1),
-                new TodoResponse(id2, "title2", 2, true, "http://localhost/todos/" + id2),
-                new TodoResponse(id3, "title3", 3, false, "http://localhost/todos/" + id3),
-                new TodoResponse(id4, "title4", 4, true, "http://localhost/todos/" + id4)
+                new TodoResponse(id1, "title1", 1, false, 0, "http://localhost/todos/" + id1),
+                new TodoResponse(id2, "title2", 2, true, 0, "http://localhost/todos/" + id2),
+                new TodoResponse(id3, "title3", 3, false, 0, "http://localhost/todos/" + id3),
+                new TodoResponse(id4, "title4", 4, true, 0, "http://localhost/todos/" + id4)
         );
 
         when(todosService.findAll()).thenReturn(todos);
@@ -120,12 +222,88 @@ class TodoControllerShould {
         verifyNoMoreInteractions(todosService);
     }
 
+    @DisplayName("should retrieve all todos compressed when accepted")
+    @Test
+    void getAllTodosCompressed() throws Exception {
+        final var id = UUID.randomUUID();
+        final var todos = List.of(new Todo(id, "title", 1, false));
+        final var expectedResponse = List.of(new TodoResponse(id, "title", 1, false, 0, "http://localhost/todos/" + id));
+
+        when(todosService.findAll()).thenReturn(todos);
+
+        for (int i = 0; i < 2; i++) {
+            final byte[] body = mockMvc.perform(
+                            get("/todos")
+                                    .accept(MediaType.APPLICATION_JSON)
+                                    .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+                    )
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            try (var gzipInput = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                final String json = new String(gzipInput.readAllBytes(), StandardCharsets.UTF_8);
+                assertEquals(mapper.readTree(mapper.writeValueAsString(expectedResponse)), mapper.readTree(json));
+            }
+        }
+
+        verify(todosService).findAll();
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should ignore a malformed quality of an encoding")
+    @Test
+    void ignoreMalformedEncodingQuality() throws Exception {
+        when(todosService.findAll()).thenReturn(List.of());
+
+        mockMvc.perform(
+                        get("/todos")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=high")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @DisplayName("should retrieve all todos in cbor")
+    @Test
+    void getAllTodosInCbor() throws Exception {
+        final var cborMapper = new CBORMapper();
+        final var id = UUID.randomUUID();
+        final var todos = List.of(new Todo(id, "title", 1, false));
+        final var expectedResponse = new TodoResponse[]{new TodoResponse(id, "title", 1, false, 0, "http://localhost/todos/" + id)};
+
+        when(todosService.findAll()).thenReturn(todos);
+
+        final byte[] body = mockMvc.perform(get("/todos").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(expectedResponse, cborMapper.readValue(body, TodoResponse[].class));
+        verify(todosService).findAll();
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should retrieve all todos in json when any format is accepted")
+    @Test
+    void getAllTodosInJsonByDefault() throws Exception {
+        when(todosService.findAll()).thenReturn(List.of());
+
+        mockMvc.perform(get("/todos").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/todos").header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+    }
+
     @DisplayName("should retrieve the todo matching the id")
     @Test
     void getSpecificTodo() throws Exception {
         final var id = UUID.randomUUID();
         final var todo = new Todo(id, "title", 1, false);
-        final var expectedResponse = new TodoResponse(id, "title", 1, false, "http://localhost/todos/" + id);
+        final var expectedResponse = new TodoResponse(id, "title", 1, false, 0, "http://localhost/todos/" + id);
 
         when(todosService.findById(any())).thenReturn(Optional.of(todo));
 
@@ -159,10 +337,10 @@ class TodoControllerShould {
     void updateSpecificTodoEntirely() throws Exception {
         final var id = UUID.randomUUID();
         final var todo = new Todo(id, "title", 0, false);
-        final var updateRequest = new TodoFullUpdateRequest("title", false, 0);
-        final var expectedResponse = new TodoResponse(id, "title", 0, false, "http://localhost/todos/" + id);
+        final var updateRequest = new TodoFullUpdateRequest("title", false, 0, null);
+        final var expectedResponse = new TodoResponse(id, "title", 0, false, 0, "http://localhost/todos/" + id);
 
-        when(todosService.update(any(), anyString(), anyInt(), anyBoolean())).thenReturn(todo);
+        when(todosService.tryUpdate(any(), anyString(), anyInt(), anyBoolean(), any())).thenReturn(Outcome.success(todo));
 
         mockMvc.perform(
                         put("/todos/" + id)
@@ -174,7 +352,7 @@ class TodoControllerShould {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(content().json(mapper.writeValueAsString(expectedResponse), true));
 
-        verify(todosService).update(id, "title", 0, false);
+        verify(todosService).tryUpdate(id, "title", 0, false, null);
         verifyNoMoreInteractions(todosService);
     }
 
@@ -207,17 +385,17 @@ class TodoControllerShould {
                 title,
                 completed,
                 order
-        );
+        , null);
 
         final var expectedResponse = new TodoResponse(
                 id,
                 updatedTodo.title(),
                 updatedTodo.order(),
-                updatedTodo.completed(),
+                updatedTodo.completed(), 0,
                 "http://localhost/todos/" + id
         );
 
-        when(todosService.update(any(), any(), any(), any())).thenReturn(updatedTodo);
+        when(todosService.tryUpdate(any(), any(), any(), any(), any())).thenReturn(Outcome.success(updatedTodo));
 
         mockMvc.perform(
                         patch("/todos/" + id)
@@ -229,7 +407,7 @@ class TodoControllerShould {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(content().json(mapper.writeValueAsString(expectedResponse), true));
 
-        verify(todosService).update(id, title, order, completed);
+        verify(todosService).tryUpdate(id, title, order, completed, null);
         verifyNoMoreInteractions(todosService);
     }
 
@@ -237,9 +415,9 @@ class TodoControllerShould {
     @Test
     void returnNotFoundWhenUpdatingUnknownTodo() throws Exception {
         final var id = UUID.randomUUID();
-        final var updateRequest = new TodoFullUpdateRequest("title", false, 0);
+        final var updateRequest = new TodoFullUpdateRequest("title", false, 0, null);
 
-        when(todosService.update(any(), any(), any(), any())).thenThrow(new TodoNotFoundException());
+        when(todosService.tryUpdate(any(), any(), any(), any(), any())).thenReturn(Outcome.failure(Outcome.Reason.TODO_NOT_FOUND));
 
         mockMvc.perform(
                         put("/todos/" + id)
@@ -248,7 +426,26 @@ class TodoControllerShould {
                 )
                 .andExpect(status().isNotFound());
 
-        verify(todosService).update(id, "title", 0, false);
+        verify(todosService).tryUpdate(id, "title", 0, false, null);
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should return conflict when updating with a title already in use")
+    @Test
+    void returnConflictWhenTitleIsAlreadyInUse() throws Exception {
+        final var id = UUID.randomUUID();
+        final var updateRequest = new TodoPartialUpdateRequest("title", null, null, null);
+
+        when(todosService.tryUpdate(any(), any(), any(), any(), any())).thenReturn(Outcome.failure(Outcome.Reason.TITLE_ALREADY_IN_USE));
+
+        mockMvc.perform(
+                        patch("/todos/" + id)
+                                .content(mapper.writeValueAsString(updateRequest))
+                                .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isConflict());
+
+        verify(todosService).tryUpdate(id, "title", null, null, null);
         verifyNoMoreInteractions(todosService);
     }
 
@@ -257,9 +454,11 @@ class TodoControllerShould {
     void deleteSpecificTodo() throws Exception {
         final var id = UUID.randomUUID();
 
+        when(todosService.tryDeleteById(any())).thenReturn(Outcome.success(null));
+
         mockMvc.perform(delete("/todos/" + id)).andExpect(status().isNoContent());
 
-        verify(todosService).deleteById(id);
+        verify(todosService).tryDeleteById(id);
         verifyNoMoreInteractions(todosService);
     }
 
@@ -268,14 +467,36 @@ class TodoControllerShould {
     void returnNotFoundWhenDeletingUnknownTodo() throws Exception {
         final var id = UUID.randomUUID();
 
-        doThrow(TodoNotFoundException.class).when(todosService).deleteById(any());
+        when(todosService.tryDeleteById(any())).thenReturn(Outcome.failure(Outcome.Reason.TODO_NOT_FOUND));
 
         mockMvc.perform(delete("/todos/" + id)).andExpect(status().isNotFound());
 
-        verify(todosService).deleteById(id);
+        verify(todosService).tryDeleteById(id);
         verifyNoMoreInteractions(todosService);
     }
 
+    @DisplayName("should delete the todos matching the ids")
+    @Test
+    void deleteTodosById() throws Exception {
+        final var id1 = UUID.randomUUID();
+        final var id2 = UUID.randomUUID();
+
+        mockMvc.perform(delete("/todos").param("ids", id1 + "," + id2)).andExpect(status().isNoContent());
+
+        verify(todosService).deleteAllById(Set.of(id1, id2));
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should refuse to delete more todos by id than allowed at once")
+    @Test
+    void refuseDeletingTooManyTodosById() throws Exception {
+        final String ids = Stream.generate(UUID::randomUUID).limit(1001).map(UUID::toString).collect(Collectors.joining(","));
+
+        mockMvc.perform(delete("/todos").param("ids", ids)).andExpect(status().isBadRequest());
+
+        verifyNoInteractions(todosService);
+    }
+
     @DisplayName("should delete all todos")
     @Test
     void deleteAllTodos() throws Exception {
@@ -284,4 +505,72 @@ class TodoControllerShould {
         verify(todosService).deleteAll();
         verifyNoMoreInteractions(todosService);
     }
-}
\ No newline at end of file
+
+    @DisplayName("should throttle a client exceeding its bulk delete budget")
+    @Test
+    void throttleBulkDeletes() throws Exception {
+        final var clientAddress = "10.0.0.1";
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(delete("/todos").with(remoteAddress(clientAddress))).andExpect(status().isNoContent());
+        }
+        mockMvc.perform(delete("/todos").with(remoteAddress(clientAddress))).andExpect(status().isTooManyRequests());
+
+        verify(todosService, times(5)).deleteAll();
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should throttle a client whatever client id it claims")
+    @Test
+    void throttleClientsChangingTheirClientId() throws Exception {
+        final var clientAddress = "10.0.0.2";
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(delete("/todos").with(remoteAddress(clientAddress)).header("X-Client-Id", UUID.randomUUID().toString()))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(delete("/todos").with(remoteAddress(clientAddress)).header("X-Client-Id", UUID.randomUUID().toString()))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private static RequestPostProcessor remoteAddress(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    @DisplayName("should restore an archived todo")
+    @Test
+    void restoreArchivedTodo() throws Exception {
+        final var id = UUID.randomUUID();
+        final var expectedResponse = new TodoResponse(id, "title", 1, true, 0, "http://localhost/todos/" + id);
+
+        when(todosService.tryRestore(id)).thenReturn(Outcome.success(new Todo(id, "title", 1, true)));
+
+        mockMvc.perform(post("/todos/archive/" + id + "/restore"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(expectedResponse), true));
+
+        verify(todosService).tryRestore(id);
+        verifyNoMoreInteractions(todosService);
+    }
+
+    @DisplayName("should refuse to restore an archived todo whose title is in use")
+    @Test
+    void refuseToRestoreArchivedTodoWhoseTitleIsInUse() throws Exception {
+        final var id = UUID.randomUUID();
+
+        when(todosService.tryRestore(id)).thenReturn(Outcome.failure(Outcome.Reason.TITLE_ALREADY_IN_USE));
+
+        mockMvc.perform(post("/todos/archive/" + id + "/restore")).andExpect(status().isConflict());
+    }
+
+    @DisplayName("should refuse an archive page larger than the limit")
+    @Test
+    void refuseTooLargeArchivePage() throws Exception {
+        mockMvc.perform(get("/todos/archive").param("size", "1001")).andExpect(status().isBadRequest());
+
+        verifyNoInteractions(todosService);
+    }
+}
@@ -0,0 +1,172 @@
+package io.smanicome.todoback.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smanicome.todoback.web.request.TodoCreationRequest;
+import io.smanicome.todoback.web.request.TodoPartialUpdateRequest;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "todo.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+@DisplayName("Todos endpoints under concurrent updates")
+class TodoEndpointsConcurrencyShould {
+    private static final int THREADS_PER_FIELD = 8;
+    private static final int UPDATES_PER_THREAD = 20;
+    private static final int MAX_ATTEMPTS = 200;
+    private static final int DELETION_ROUNDS = 20;
+    private static final int LISTING_CLIENTS = 4;
+
+    private enum Field { TITLE, ORDER, COMPLETED }
+
+    private record Write(Field field, TodoResponse response) {}
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @DisplayName("should lose no update of any field when many clients update the same todo")
+    @Test
+    void loseNoUpdate() throws Exception {
+        final TodoResponse created = createdTodo();
+        final String prefix = created.id().toString();
+        final int firstOrder = created.order() + 1;
+
+        final List<Callable<List<Write>>> clients = new ArrayList<>();
+        for (int thread = 0; thread < THREADS_PER_FIELD; thread++) {
+            final int client = thread;
+            clients.add(() -> updates(created, Field.TITLE, i -> new TodoPartialUpdateRequest(prefix + "-" + client + "-" + i, null, null, null)));
+            clients.add(() -> updates(created, Field.ORDER, i -> new TodoPartialUpdateRequest(null, null, firstOrder + client * UPDATES_PER_THREAD + i, null)));
+            clients.add(() -> updates(created, Field.COMPLETED, i -> new TodoPartialUpdateRequest(null, (client + i) % 2 == 0, null, null)));
+        }
+
+        final List<Write> writes = new ArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(clients.size());
+        try {
+            for (Future<List<Write>> client : executor.invokeAll(clients)) writes.addAll(client.get());
+        } finally {
+            executor.shutdown();
+        }
+        final TodoResponse stored = storedTodo(created);
+
+        assertEquals(3 * THREADS_PER_FIELD * UPDATES_PER_THREAD, writes.size());
+        final Set<Long> reportedVersions = writes.stream().map(write -> write.response().version()).collect(Collectors.toSet());
+        assertTrue(reportedVersions.containsAll(LongStream.rangeClosed(1, stored.version()).boxed().toList()),
+                "every version is reported by the write which made it, no write got lost in between");
+        assertEquals(stored.version(), Collections.max(reportedVersions));
+        assertEquals(lastWrite(writes, Field.TITLE).title(), stored.title());
+        assertEquals(lastWrite(writes, Field.ORDER).order(), stored.order());
+        assertEquals(lastWrite(writes, Field.COMPLETED).completed(), stored.completed());
+    }
+
+    @DisplayName("should refuse an update at a version the todo is no longer at")
+    @Test
+    void refuseUpdateOfStaleVersion() throws Exception {
+        final TodoResponse created = createdTodo();
+        final TodoResponse updated = mapper.readValue(patched(created, new TodoPartialUpdateRequest(null, true, null, created.version()))
+                .getContentAsString(), TodoResponse.class);
+
+        mockMvc.perform(patch("/todos/{id}", created.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoPartialUpdateRequest("stale-" + UUID.randomUUID(), null, null, created.version())))
+                )
+                .andExpect(status().isConflict());
+
+        assertEquals(created.version() + 1, updated.version());
+        assertEquals(updated, storedTodo(created));
+    }
+
+    @DisplayName("should serve no deleted todo in the list once deletions of completed todos are done")
+    @Test
+    void serveNoStaleListAfterConcurrentDeletions() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(LISTING_CLIENTS + 1);
+        try {
+            for (int round = 0; round < DELETION_ROUNDS; round++) {
+                final Set<UUID> completedIds = new HashSet<>();
+                for (int i = 0; i < 3; i++) {
+                    final TodoResponse todo = createdTodo();
+                    assertEquals(200, patched(todo, new TodoPartialUpdateRequest(null, true, null, null)).getStatus());
+                    completedIds.add(todo.id());
+                }
+
+                final List<Callable<Object>> clients = new ArrayList<>();
+                clients.add(() -> mockMvc.perform(delete("/todos/completed")).andExpect(status().isNoContent()));
+                for (int client = 0; client < LISTING_CLIENTS; client++) clients.add(this::listedTodos);
+                for (Future<Object> client : executor.invokeAll(clients)) client.get();
+
+                final int deletionRound = round;
+                assertTrue(listedTodos().stream().map(TodoResponse::id).noneMatch(completedIds::contains),
+                        "the list cached during round " + deletionRound + " holds deleted todos");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A client sending its updates one after the other, each sent again until it's applied.
+     */
+    private List<Write> updates(TodoResponse todo, Field field, Function<Integer, TodoPartialUpdateRequest> requests) throws Exception {
+        final List<Write> writes = new ArrayList<>();
+        for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+            final TodoPartialUpdateRequest request = requests.apply(i);
+            MockHttpServletResponse response = patched(todo, request);
+            for (int attempt = 1; response.getStatus() == 409 && attempt < MAX_ATTEMPTS; attempt++) response = patched(todo, request);
+
+            assertEquals(200, response.getStatus(), field + " update " + i + " was never applied");
+            writes.add(new Write(field, mapper.readValue(response.getContentAsString(), TodoResponse.class)));
+        }
+        return writes;
+    }
+
+    private static TodoResponse lastWrite(List<Write> writes, Field field) {
+        return writes.stream()
+                .filter(write -> write.field() == field)
+                .map(Write::response)
+                .max(Comparator.comparingLong(TodoResponse::version))
+                .orElseThrow();
+    }
+
+    private MockHttpServletResponse patched(TodoResponse todo, TodoPartialUpdateRequest request) throws Exception {
+        return mockMvc.perform(patch("/todos/{id}", todo.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(request))
+                )
+                .andReturn().getResponse();
+    }
+
+    private List<TodoResponse> listedTodos() throws Exception {
+        return List.of(mapper.readValue(mockMvc.perform(get("/todos")).andReturn().getResponse().getContentAsByteArray(), TodoResponse[].class));
+    }
+
+    private TodoResponse storedTodo(TodoResponse todo) throws Exception {
+        return mapper.readValue(mockMvc.perform(get("/todos/{id}", todo.id())).andReturn().getResponse().getContentAsString(), TodoResponse.class);
+    }
+
+    private TodoResponse createdTodo() throws Exception {
+        final String response = mockMvc.perform(post("/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoCreationRequest("title-" + UUID.randomUUID())))
+                )
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(response, TodoResponse.class);
+    }
+}
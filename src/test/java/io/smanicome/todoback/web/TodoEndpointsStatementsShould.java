@@ -0,0 +1,112 @@
+package io.smanicome.todoback.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smanicome.todoback.web.request.TodoCreationRequest;
+import io.smanicome.todoback.web.request.TodoPartialUpdateRequest;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static io.smanicome.todoback.web.tracing.SqlTraceResultMatchers.sql;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"todo.sql-tracing.enabled=true", "todo.rate-limit.enabled=false"})
+@AutoConfigureMockMvc
+@DisplayName("Todos endpoints statements")
+class TodoEndpointsStatementsShould {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @DisplayName("should check the title then insert on creation")
+    @Test
+    void createTodo() throws Exception {
+        mockMvc.perform(post("/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoCreationRequest(uniqueTitle())))
+                )
+                .andExpect(status().isCreated())
+                .andExpect(sql().statements(2));
+    }
+
+    @DisplayName("should read a todo with a single select")
+    @Test
+    void findTodo() throws Exception {
+        final UUID id = createdTodo();
+
+        mockMvc.perform(get("/todos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(sql().statements(1));
+    }
+
+    @DisplayName("should list todos with a single select")
+    @Test
+    void listTodos() throws Exception {
+        createdTodo();
+        createdTodo();
+
+        mockMvc.perform(get("/todos").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(sql().statementsAtMost(1))
+                .andExpect(sql().noRepeatedStatement());
+    }
+
+    @DisplayName("should find, check the title and update on partial update")
+    @Test
+    void updateTodo() throws Exception {
+        final UUID id = createdTodo();
+
+        mockMvc.perform(patch("/todos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoPartialUpdateRequest(uniqueTitle(), true, null, null)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(sql().statements(3));
+    }
+
+    @DisplayName("should find and update only the completed flag")
+    @Test
+    void completeTodo() throws Exception {
+        final UUID id = createdTodo();
+
+        mockMvc.perform(patch("/todos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoPartialUpdateRequest(null, true, null, null)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(sql().statements(2));
+    }
+
+    @DisplayName("should delete a todo with a single statement")
+    @Test
+    void deleteTodo() throws Exception {
+        final UUID id = createdTodo();
+
+        mockMvc.perform(delete("/todos/{id}", id))
+                .andExpect(status().isNoContent())
+                .andExpect(sql().statements(1));
+    }
+
+    private UUID createdTodo() throws Exception {
+        final String response = mockMvc.perform(post("/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new TodoCreationRequest(uniqueTitle())))
+                )
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(response, TodoResponse.class).id();
+    }
+
+    private static String uniqueTitle() {
+        return "title-" + UUID.randomUUID();
+    }
+}
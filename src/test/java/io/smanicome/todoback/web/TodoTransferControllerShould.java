@@ -0,0 +1,158 @@
+package io.smanicome.todoback.web;
+
+import io.smanicome.todoback.core.model.NewTodo;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.service.ConflictPolicy;
+import io.smanicome.todoback.core.service.ImportReport;
+import io.smanicome.todoback.core.service.Outcome;
+import io.smanicome.todoback.core.service.TodoService;
+import io.smanicome.todoback.web.limit.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "todo.rate-limit.enabled=true")
+@AutoConfigureMockMvc
+@DisplayName("Todos transfer Controller")
+class TodoTransferControllerShould {
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @MockBean
+    private TodoService todosService;
+
+    @DisplayName("should stream all todos as newline-delimited json")
+    @Test
+    void exportTodosAsNdjson() throws Exception {
+        final var id = UUID.randomUUID();
+        doAnswer(invocation -> {
+            invocation.<Consumer<Todo>>getArgument(0).accept(new Todo(id, "title", 1, true));
+            return null;
+        }).when(todosService).exportAll(any());
+
+        final MvcResult started = mockMvc.perform(get("/todos/export").accept(NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment"))
+                .andExpect(content().contentTypeCompatibleWith(NDJSON))
+                .andExpect(content().string("{\"id\":\"" + id + "\",\"title\":\"title\",\"order\":1,\"completed\":true}\n"));
+    }
+
+    @DisplayName("should hold one concurrency permit while streaming and release it once done")
+    @Test
+    void releaseConcurrencyPermitOfStreamedExport() throws Exception {
+        final MvcResult started = mockMvc.perform(get("/todos/export").accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, concurrencyLimiter.getInFlight());
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,title,order,completed\n"));
+
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @DisplayName("should import every line of the body")
+    @Test
+    void importTodos() throws Exception {
+        final List<NewTodo> imported = new ArrayList<>();
+        when(todosService.importAll(any(), eq(ConflictPolicy.SKIP), anyInt(), any())).thenAnswer(invocation -> {
+            invocation.<Iterator<NewTodo>>getArgument(0).forEachRemaining(imported::add);
+            return new ImportReport(imported.size(), 0, null, 0, Duration.ofMillis(5));
+        });
+
+        mockMvc.perform(post("/todos/import")
+                        .contentType("text/csv")
+                        .content("title,order,completed\nfirst,1,true\nsecond,,\n")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.skipped").value(0))
+                .andExpect(jsonPath("$.failure").doesNotExist());
+
+        assertEquals(List.of(new NewTodo("first", 1, true), new NewTodo("second", null, false)), imported);
+    }
+
+    @DisplayName("should report the line an import stopped on")
+    @Test
+    void reportFailedImport() throws Exception {
+        failImportAtSecondRecord();
+
+        mockMvc.perform(post("/todos/import")
+                        .param("onConflict", "FAIL")
+                        .contentType(NDJSON)
+                        .content("{\"title\":\"first\"}\n\n{\"title\":\"first\"}\n")
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failure").value("TITLE_ALREADY_IN_USE"))
+                .andExpect(jsonPath("$.failedLine").value(3));
+    }
+
+    @DisplayName("should count the header in the line an import stopped on")
+    @Test
+    void reportFailedCsvImportAfterItsHeader() throws Exception {
+        failImportAtSecondRecord();
+
+        mockMvc.perform(post("/todos/import")
+                        .param("onConflict", "FAIL")
+                        .contentType("text/csv")
+                        .content("title,order,completed\nfirst,1,true\nfirst,2,\n")
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.failedLine").value(3));
+    }
+
+    private void failImportAtSecondRecord() {
+        when(todosService.importAll(any(), eq(ConflictPolicy.FAIL), anyInt(), any())).thenAnswer(invocation -> {
+            invocation.<Iterator<NewTodo>>getArgument(0).forEachRemaining(todo -> {});
+            return new ImportReport(1, 0, Outcome.Reason.TITLE_ALREADY_IN_USE, 2, Duration.ofMillis(5));
+        });
+    }
+
+    @DisplayName("should refuse a malformed line")
+    @Test
+    void refuseMalformedLine() throws Exception {
+        when(todosService.importAll(any(), any(), anyInt(), any())).thenAnswer(invocation -> {
+            invocation.<Iterator<NewTodo>>getArgument(0).forEachRemaining(todo -> {});
+            return new ImportReport(0, 0, null, 0, Duration.ZERO);
+        });
+
+        mockMvc.perform(post("/todos/import")
+                        .contentType(NDJSON)
+                        .content("{\"title\":\"first\"}\n{\"title\":\n")
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.failure").value("MALFORMED_LINE"));
+    }
+}
@@ -0,0 +1,65 @@
+package io.smanicome.todoback.web.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelListSerializerShould {
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+    private final ParallelListSerializer serializer = new ParallelListSerializer(pool, 10);
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final Random random = new Random(42);
+    private final List<Todo> todos = IntStream.range(0, 1001)
+            .mapToObj(order -> new Todo(new UUID(random.nextLong(), random.nextLong()), "title \"" + order + "\"", order, order % 2 == 0))
+            .toList();
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void acceptListsOfAtLeastTheThreshold() {
+        assertFalse(serializer.accepts(todos.subList(0, 9)));
+        assertTrue(serializer.accepts(todos.subList(0, 10)));
+    }
+
+    @Test
+    void serializeSameJsonAsSequentially() throws IOException {
+        assertArrayEquals(jsonMapper.writeValueAsBytes(responsesOf(todos)), serializer.serialize(jsonMapper, todos, "http://localhost"));
+    }
+
+    @Test
+    void serializeCborArrayInOrder() throws IOException {
+        final ObjectMapper cborMapper = jsonMapper.copyWith(new CBORFactory());
+
+        final byte[] cbor = serializer.serialize(cborMapper, todos, "http://localhost");
+
+        assertArrayEquals(responsesOf(todos).toArray(), cborMapper.readValue(cbor, TodoResponse[].class));
+    }
+
+    @Test
+    void serializeListShorterThanChunks() throws IOException {
+        final List<Todo> shortList = todos.subList(0, 2);
+
+        assertArrayEquals(jsonMapper.writeValueAsBytes(responsesOf(shortList)), serializer.serialize(jsonMapper, shortList, "http://localhost"));
+    }
+
+    private static List<TodoResponse> responsesOf(List<Todo> todos) {
+        return todos.stream()
+                .map(todo -> new TodoResponse(todo.id(), todo.title(), todo.order(), todo.completed(), 0, "http://localhost/todos/" + todo.id()))
+                .toList();
+    }
+}
@@ -0,0 +1,108 @@
+package io.smanicome.todoback.web.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoListResponseCacheShould {
+    private final TodoChanges todoChanges = new TodoChanges();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TodoListResponseCache cache = new TodoListResponseCache(todoChanges, objectMapper, Optional.empty(), 2);
+
+    private final AtomicInteger builds = new AtomicInteger();
+    private final Todo todo = new Todo(UUID.randomUUID(), "test", 0, false);
+    private final List<TodoResponse> todoResponses = List.of(
+            new TodoResponse(todo.id(), "test", 0, false, 0, "http://localhost/todos/" + todo.id())
+    );
+    private final Supplier<List<Todo>> responses = () -> {
+        builds.incrementAndGet();
+        return List.of(todo);
+    };
+
+    @Test
+    void serializeOncePerVersion() throws IOException {
+        final byte[] first = cache.get(MediaType.APPLICATION_JSON, "http://localhost", responses).body();
+        final byte[] second = cache.get(MediaType.APPLICATION_JSON, "http://localhost", responses).body();
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertArrayEquals(objectMapper.writeValueAsBytes(todoResponses), first);
+    }
+
+    @Test
+    void rebuildAfterAChange() {
+        cache.get(MediaType.APPLICATION_JSON, "http://localhost", responses);
+        todoChanges.recordChange();
+        cache.get(MediaType.APPLICATION_JSON, "http://localhost", responses);
+
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void keepResponsesPerBaseUrl() {
+        cache.get(MediaType.APPLICATION_JSON, "http://localhost", responses);
+        cache.get(MediaType.APPLICATION_JSON, "http://localhost/app", responses);
+
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void keepNoMoreEntriesThanItsBound() {
+        cache.get(MediaType.APPLICATION_JSON, "http://one", responses);
+        cache.get(MediaType.APPLICATION_JSON, "http://two", responses);
+        cache.get(MediaType.APPLICATION_JSON, "http://three", responses);
+        cache.get(MediaType.APPLICATION_JSON, "http://three", responses);
+
+        assertEquals(2, cache.entries());
+        assertEquals(4, builds.get());
+    }
+
+    @Test
+    void makeRoomByDroppingStaleEntries() {
+        cache.get(MediaType.APPLICATION_JSON, "http://one", responses);
+        cache.get(MediaType.APPLICATION_JSON, "http://two", responses);
+        todoChanges.recordChange();
+        cache.get(MediaType.APPLICATION_JSON, "http://three", responses);
+        cache.get(MediaType.APPLICATION_JSON, "http://three", responses);
+
+        assertEquals(1, cache.entries());
+        assertEquals(3, builds.get());
+    }
+
+    @Test
+    void compressSerializedResponse() throws IOException {
+        final TodoListResponseCache.CachedResponse cachedResponse = cache.get(MediaType.APPLICATION_JSON, "http://localhost", responses);
+
+        try (GZIPInputStream gzipInput = new GZIPInputStream(new ByteArrayInputStream(cachedResponse.gzip()))) {
+            assertArrayEquals(cachedResponse.body(), gzipInput.readAllBytes());
+        }
+        assertSame(cachedResponse.gzip(), cachedResponse.gzip());
+    }
+
+    @Test
+    void keepResponsesPerFormat() throws IOException {
+        final byte[] json = cache.get(MediaType.APPLICATION_JSON, "http://localhost", responses).body();
+        final byte[] cbor = cache.get(MediaType.APPLICATION_CBOR, "http://localhost", responses).body();
+
+        assertEquals(2, builds.get());
+        assertArrayEquals(
+                objectMapper.readValue(json, TodoResponse[].class),
+                new CBORMapper().readValue(cbor, TodoResponse[].class)
+        );
+    }
+}
@@ -0,0 +1,70 @@
+package io.smanicome.todoback.web.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.smanicome.todoback.core.model.Todo;
+import io.smanicome.todoback.core.repository.TodoChanges;
+import io.smanicome.todoback.web.response.TodoResponse;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class TodoResponseWriterShould {
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper CBOR_MAPPER = JSON_MAPPER.copyWith(new CBORFactory());
+    private static final String BASE_URL = "http://localhost:8080/app";
+
+    private static final List<Todo> TODOS = List.of(
+            new Todo(new UUID(0, 1), "test", 0, false),
+            new Todo(new UUID(-1, -1), "quoted \"title\" with \\ and \n", Todo.MAX_ORDER, true, Long.MAX_VALUE),
+            new Todo(UUID.randomUUID(), "été ✓ 🚀", 42, false, 7),
+            new Todo(UUID.randomUUID(), "x".repeat(1000), 1, true, 1)
+    );
+
+    public static Stream<Arguments> formats() {
+        return Stream.of(
+                Arguments.of(MediaType.APPLICATION_JSON, JSON_MAPPER),
+                Arguments.of(MediaType.APPLICATION_CBOR, CBOR_MAPPER)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("formats")
+    void writeSameBytesAsTheMapperForEachTodo(MediaType mediaType, ObjectMapper mapper) throws IOException {
+        final TodoResponseWriter writer = new TodoResponseWriter(BASE_URL);
+
+        for (Todo todo : TODOS) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (JsonGenerator generator = mapper.createGenerator(output)) {
+                writer.write(generator, todo);
+            }
+
+            assertArrayEquals(mapper.writeValueAsBytes(responseOf(todo)), output.toByteArray(), mediaType + " " + todo);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("formats")
+    void writeSameBytesAsTheMapperForTheList(MediaType mediaType, ObjectMapper mapper) throws IOException {
+        final TodoListResponseCache cache = new TodoListResponseCache(new TodoChanges(), JSON_MAPPER, Optional.empty(), 2);
+
+        final byte[] body = cache.get(mediaType, BASE_URL, () -> TODOS).body();
+
+        assertArrayEquals(mapper.writeValueAsBytes(TODOS.stream().map(TodoResponseWriterShould::responseOf).toList()), body);
+    }
+
+    private static TodoResponse responseOf(Todo todo) {
+        return new TodoResponse(todo.id(), todo.title(), todo.order(), todo.completed(), todo.version(), BASE_URL + "/todos/" + todo.id());
+    }
+}
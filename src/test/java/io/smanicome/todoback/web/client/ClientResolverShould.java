@@ -0,0 +1,39 @@
+package io.smanicome.todoback.web.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientResolverShould {
+    private final ClientResolver clientResolver = new ClientResolver("X-Client-Id", Set.of("10.0.0.1"));
+
+    private static MockHttpServletRequest request(String remoteAddress, String clientId) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/todos");
+        request.setRemoteAddr(remoteAddress);
+        if (clientId != null) request.addHeader("X-Client-Id", clientId);
+        return request;
+    }
+
+    @Test
+    void identifyClientsByTheirAddress() {
+        assertEquals("10.0.0.2", clientResolver.clientOf(request("10.0.0.2", null)));
+    }
+
+    @Test
+    void ignoreTheClientIdSentByAClient() {
+        assertEquals("10.0.0.2", clientResolver.clientOf(request("10.0.0.2", "someone-else")));
+    }
+
+    @Test
+    void trustTheClientIdForwardedByATrustedProxy() {
+        assertEquals("client", clientResolver.clientOf(request("10.0.0.1", "client")));
+    }
+
+    @Test
+    void identifyTheTrustedProxyWhenItForwardsNoClientId() {
+        assertEquals("10.0.0.1", clientResolver.clientOf(request("10.0.0.1", " ")));
+    }
+}
@@ -0,0 +1,138 @@
+package io.smanicome.todoback.web.idempotency;
+
+import io.smanicome.todoback.web.idempotency.IdempotencyStore.Claim;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreShould {
+    private static final String FINGERPRINT = IdempotencyStore.fingerprintOf("client", "title");
+
+    private static IdempotencyStore store(int maxEntries, Duration ttl) {
+        return new IdempotencyStore(maxEntries, ttl, Duration.ofSeconds(5));
+    }
+
+    private static Object execute(IdempotencyStore store, String key, AtomicInteger executions) {
+        return execute(store, key, FINGERPRINT, executions);
+    }
+
+    private static Object execute(IdempotencyStore store, String key, String fingerprint, AtomicInteger executions) {
+        return switch (store.<Integer>claim(key, fingerprint)) {
+            case Claim.Replayed<Integer> replayed -> replayed.response();
+            case Claim.Owned<Integer> owned -> {
+                try {
+                    final int response = executions.incrementAndGet();
+                    store.complete(key, response);
+                    yield response;
+                } finally {
+                    store.release(key);
+                }
+            }
+            case Claim<Integer> refused -> refused;
+        };
+    }
+
+    @Test
+    void replayStoredResponse() {
+        final IdempotencyStore store = store(10, Duration.ofMinutes(1));
+        final AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, execute(store, "key", executions));
+        assertEquals(1, execute(store, "key", executions));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void refuseKeyReusedByAnotherClientOrWithAnotherBody() {
+        final IdempotencyStore store = store(10, Duration.ofMinutes(1));
+        final AtomicInteger executions = new AtomicInteger();
+
+        execute(store, "key", executions);
+
+        assertInstanceOf(Claim.Mismatched.class, execute(store, "key", IdempotencyStore.fingerprintOf("other client", "title"), executions));
+        assertInstanceOf(Claim.Mismatched.class, execute(store, "key", IdempotencyStore.fingerprintOf("client", "other title"), executions));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void tellFingerprintsOfDifferentFieldsApart() {
+        assertNotEquals(IdempotencyStore.fingerprintOf("client", "ab", "c"), IdempotencyStore.fingerprintOf("client", "a", "bc"));
+        assertNotEquals(IdempotencyStore.fingerprintOf("client", "title"), IdempotencyStore.fingerprintOf("clienttitle"));
+    }
+
+    @Test
+    void executeAgainOnceExpired() throws InterruptedException {
+        final IdempotencyStore store = store(10, Duration.ofMillis(10));
+        final AtomicInteger executions = new AtomicInteger();
+
+        execute(store, "key", executions);
+        Thread.sleep(20);
+        execute(store, "key", executions);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void notStoreReleasedKeys() {
+        final IdempotencyStore store = store(10, Duration.ofMinutes(1));
+
+        assertInstanceOf(Claim.Owned.class, store.claim("key", FINGERPRINT));
+        store.release("key");
+
+        assertInstanceOf(Claim.Owned.class, store.claim("key", FINGERPRINT));
+    }
+
+    @Test
+    void evictEntriesOverCapacity() {
+        final IdempotencyStore store = store(2, Duration.ofMinutes(1));
+        final AtomicInteger executions = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            execute(store, "key" + i, executions);
+        }
+        execute(store, "key0", executions);
+
+        assertEquals(11, executions.get());
+    }
+
+    @Test
+    void stopWaitingForARequestStillInFlightAfterTheTimeout() {
+        final IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(1), Duration.ofMillis(50));
+
+        assertInstanceOf(Claim.Owned.class, store.claim("key", FINGERPRINT));
+
+        final long startedAt = System.nanoTime();
+        assertInstanceOf(Claim.InFlight.class, store.claim("key", FINGERPRINT));
+        assertTrue(System.nanoTime() - startedAt >= Duration.ofMillis(50).toNanos());
+    }
+
+    @Test
+    void coalesceConcurrentRequests() throws Exception {
+        final IdempotencyStore store = store(10, Duration.ofMinutes(1));
+        final AtomicInteger executions = new AtomicInteger();
+
+        assertInstanceOf(Claim.Owned.class, store.claim("key", FINGERPRINT));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Object>> waiting = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                waiting.add(executor.submit(() -> execute(store, "key", executions)));
+            }
+
+            Thread.sleep(50);
+            store.complete("key", 42);
+
+            for (Future<Object> response : waiting) assertEquals(42, response.get(1, TimeUnit.SECONDS));
+            assertEquals(0, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
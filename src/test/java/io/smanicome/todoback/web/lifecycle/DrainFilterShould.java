@@ -0,0 +1,50 @@
+package io.smanicome.todoback.web.lifecycle;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrainFilterShould {
+    private final ApplicationAvailabilityBean availability = new ApplicationAvailabilityBean();
+    private final DrainFilter filter = new DrainFilter(availability);
+
+    @Test
+    void keepConnectionsBeforeFirstReady() throws Exception {
+        assertNull(filteredResponse().getHeader(HttpHeaders.CONNECTION));
+    }
+
+    @Test
+    void keepConnectionsWhileAcceptingTraffic() throws Exception {
+        publish(ReadinessState.ACCEPTING_TRAFFIC);
+
+        assertNull(filteredResponse().getHeader(HttpHeaders.CONNECTION));
+    }
+
+    @Test
+    void closeConnectionsOnceRefusingTraffic() throws Exception {
+        publish(ReadinessState.ACCEPTING_TRAFFIC);
+        publish(ReadinessState.REFUSING_TRAFFIC);
+
+        final MockHttpServletResponse response = filteredResponse();
+
+        assertEquals("close", response.getHeader(HttpHeaders.CONNECTION));
+        assertEquals(200, response.getStatus());
+    }
+
+    private void publish(ReadinessState state) {
+        availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, state));
+    }
+
+    private MockHttpServletResponse filteredResponse() throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/todos"), response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,52 @@
+package io.smanicome.todoback.web.lifecycle;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"todo.warmup.enabled=true", "todo.warmup.rounds=20"}
+)
+class WarmupRunnerShould {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportReadyOnceWarmedUp() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/actuator/health/readiness", String.class).getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/actuator/health/liveness", String.class).getStatusCode());
+    }
+
+    @Test
+    void prefillConnectionPool() throws Exception {
+        final HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+
+        assertEquals(pool.getMinimumIdle(), pool.getHikariPoolMXBean().getTotalConnections());
+    }
+
+    @Test
+    void leaveTodosUntouched() {
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE title LIKE 'warmup%'", Integer.class));
+    }
+}
@@ -0,0 +1,49 @@
+package io.smanicome.todoback.web.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterShould {
+    @Test
+    void shedRequestsOverLimit() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(Duration.ofMillis(100), 1, 2);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(0);
+
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void lowerLimitWhenLatencyIsAboveThreshold() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(Duration.ofMillis(100), 10, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(Duration.ofMillis(200).toNanos());
+        }
+        limiter.adjustLimit();
+
+        assertEquals(90, limiter.getLimit());
+    }
+
+    @Test
+    void raiseLimitBackWhenLatencyRecovers() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(Duration.ofMillis(100), 10, 100);
+
+        limiter.tryAcquire();
+        limiter.release(Duration.ofMillis(200).toNanos());
+        limiter.adjustLimit();
+        limiter.tryAcquire();
+        limiter.release(Duration.ofMillis(10).toNanos());
+        limiter.adjustLimit();
+
+        assertEquals(91, limiter.getLimit());
+    }
+}
@@ -0,0 +1,73 @@
+package io.smanicome.todoback.web.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTableShould {
+    @Test
+    void allowUpToBurst() {
+        final TokenBucketTable table = new TokenBucketTable(0.001, 3, 10);
+
+        assertTrue(table.tryAcquire("client"));
+        assertTrue(table.tryAcquire("client"));
+        assertTrue(table.tryAcquire("client"));
+        assertFalse(table.tryAcquire("client"));
+    }
+
+    @Test
+    void keepSeparateBudgetsPerClient() {
+        final TokenBucketTable table = new TokenBucketTable(0.001, 1, 10);
+
+        assertTrue(table.tryAcquire("client1"));
+        assertFalse(table.tryAcquire("client1"));
+        assertTrue(table.tryAcquire("client2"));
+    }
+
+    @Test
+    void keepSeparateBudgetsForClientsWithTheSameHash() {
+        final TokenBucketTable table = new TokenBucketTable(0.001, 1, 10);
+
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertTrue(table.tryAcquire("Aa"));
+        assertFalse(table.tryAcquire("Aa"));
+        assertTrue(table.tryAcquire("BB"));
+    }
+
+    @Test
+    void shareOneOverflowBudgetBetweenClientsBeyondTheMaximum() {
+        final TokenBucketTable table = new TokenBucketTable(0.001, 1, 2);
+
+        assertTrue(table.tryAcquire("client1"));
+        assertTrue(table.tryAcquire("client2"));
+        assertTrue(table.tryAcquire("client3"));
+        assertFalse(table.tryAcquire("client4"));
+        assertFalse(table.tryAcquire("client1"));
+        assertEquals(2, table.clients());
+    }
+
+    @Test
+    void dropIdleClientsToMakeRoomForNewOnes() throws InterruptedException {
+        final TokenBucketTable table = new TokenBucketTable(1000, 1, 2);
+
+        assertTrue(table.tryAcquire("client1"));
+        assertTrue(table.tryAcquire("client2"));
+        Thread.sleep(20);
+
+        assertTrue(table.tryAcquire("client3"));
+        assertFalse(table.tryAcquire("client3"));
+        assertEquals(1, table.clients());
+    }
+
+    @Test
+    void refillOverTime() throws InterruptedException {
+        final TokenBucketTable table = new TokenBucketTable(100, 1, 10);
+
+        assertTrue(table.tryAcquire("client"));
+        assertFalse(table.tryAcquire("client"));
+
+        Thread.sleep(20);
+
+        assertTrue(table.tryAcquire("client"));
+    }
+}
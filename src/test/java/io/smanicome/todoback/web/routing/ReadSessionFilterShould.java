@@ -0,0 +1,54 @@
+package io.smanicome.todoback.web.routing;
+
+import io.smanicome.todoback.data.routing.ReadSession;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadSessionFilterShould {
+    private static final String COOKIE = "TODO_READ_SESSION";
+
+    private final ReadSessionFilter filter = new ReadSessionFilter(COOKIE);
+
+    @Test
+    void bindTheSessionOfTheCookieWhileServingTheRequest() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/todos");
+        request.setCookies(new Cookie(COOKIE, "session"));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertEquals("session", filteredSession(request, response));
+        assertNull(response.getCookie(COOKIE));
+        assertNull(ReadSession.current());
+    }
+
+    @Test
+    void handANewSessionOutToClientsWithoutOne() throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        final String session = filteredSession(new MockHttpServletRequest("POST", "/todos"), response);
+
+        assertNotNull(session);
+        assertEquals(session, response.getCookie(COOKIE).getValue());
+        assertTrue(response.getCookie(COOKIE).isHttpOnly());
+        assertNull(ReadSession.current());
+    }
+
+    private String filteredSession(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        final AtomicReference<String> session = new AtomicReference<>();
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                session.set(ReadSession.current());
+            }
+        });
+        return session.get();
+    }
+}
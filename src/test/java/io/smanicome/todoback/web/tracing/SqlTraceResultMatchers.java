@@ -0,0 +1,39 @@
+package io.smanicome.todoback.web.tracing;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc matchers on the statements run by a request, read from the headers of {@link SqlTracingFilter}. The context
+ * under test must run with todo.sql-tracing.enabled=true.
+ */
+public final class SqlTraceResultMatchers {
+    private SqlTraceResultMatchers() {}
+
+    public static SqlTraceResultMatchers sql() {
+        return new SqlTraceResultMatchers();
+    }
+
+    public ResultMatcher statements(int expected) {
+        return result -> assertEquals(expected, header(result.getResponse().getHeader(SqlTracingFilter.STATEMENTS_HEADER)),
+                "statements run by " + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI());
+    }
+
+    public ResultMatcher statementsAtMost(int maximum) {
+        return result -> assertTrue(header(result.getResponse().getHeader(SqlTracingFilter.STATEMENTS_HEADER)) <= maximum,
+                "statements run by " + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI());
+    }
+
+    public ResultMatcher noRepeatedStatement() {
+        return result -> assertTrue(header(result.getResponse().getHeader(SqlTracingFilter.MAX_REPEATS_HEADER)) <= 1,
+                "statement repeated by " + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI());
+    }
+
+    private static int header(String value) {
+        assertNotNull(value, "no SQL trace, is todo.sql-tracing.enabled set?");
+        return Integer.parseInt(value);
+    }
+}
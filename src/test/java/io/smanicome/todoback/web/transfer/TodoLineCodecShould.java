@@ -0,0 +1,72 @@
+package io.smanicome.todoback.web.transfer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoLineCodecShould {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final TodoLineCodec codec = new TodoLineCodec(new ObjectMapper());
+
+    @Test
+    void writeOneJsonValuePerLine() throws IOException {
+        final UUID id = UUID.randomUUID();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        codec.writeAll(NDJSON, output, sink -> {
+            sink.accept(new TodoLine(id, "first", 1, false));
+            sink.accept(new TodoLine(id, "second", 2, true));
+        });
+
+        assertEquals(
+                "{\"id\":\"" + id + "\",\"title\":\"first\",\"order\":1,\"completed\":false}\n" +
+                "{\"id\":\"" + id + "\",\"title\":\"second\",\"order\":2,\"completed\":true}\n",
+                output.toString(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    void writeCsvWithHeader() throws IOException {
+        final UUID id = UUID.randomUUID();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        codec.writeAll(TodoLineCodec.TEXT_CSV, output, sink -> sink.accept(new TodoLine(id, "first", 1, false)));
+
+        assertEquals("id,title,order,completed\n\"" + id + "\",first,1,false\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readCsvWithMissingColumnsAndValues() throws IOException {
+        final String csv = "title,completed\nfirst,true\nsecond,\n";
+
+        try (MappingIterator<TodoLine> lines = codec.read(TodoLineCodec.TEXT_CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(
+                    List.of(new TodoLine(null, "first", null, true), new TodoLine(null, "second", null, null)),
+                    lines.readAll()
+            );
+        }
+    }
+
+    @Test
+    void readNdjsonIgnoringUnknownProperties() throws IOException {
+        final String ndjson = "{\"title\":\"first\",\"order\":3,\"url\":\"ignored\"}\n\n{\"title\":\"second\"}\n";
+
+        try (MappingIterator<TodoLine> lines = codec.read(NDJSON, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(
+                    List.of(new TodoLine(null, "first", 3, null), new TodoLine(null, "second", null, null)),
+                    lines.readAll()
+            );
+        }
+    }
+}